@@ -11,15 +11,14 @@
  */
 package cn.ares.bean.copy.helper;
 
-import cn.ares.bean.copy.helper.constant.Mark;
+import cn.ares.bean.copy.helper.index.CopyPropertiesCallSiteIndex;
+import cn.ares.bean.copy.helper.index.CopyPropertiesChangeTracker;
+import cn.ares.bean.copy.helper.index.CopyPropertiesRescanQueue;
 import cn.ares.bean.copy.helper.model.CopyPropertiesReferenceIndex;
 import cn.ares.bean.copy.helper.model.Property;
+import cn.ares.bean.copy.helper.model.PropertyMatching;
 import cn.ares.bean.copy.helper.resolve.BeanCopyResolve;
-import cn.ares.bean.copy.helper.resolve.impl.ApacheBeanCopyResolveImpl;
-import cn.ares.bean.copy.helper.resolve.impl.BootBeanCopyResolveImpl;
-import cn.ares.bean.copy.helper.resolve.impl.HutoolBeanCopyResolveImpl;
-import cn.ares.bean.copy.helper.resolve.impl.SpringBeanCopierResolveImpl;
-import cn.ares.bean.copy.helper.resolve.impl.SpringBeanCopyResolveImpl;
+import cn.ares.bean.copy.helper.resolve.BeanCopyResolveRegistry;
 import cn.ares.bean.copy.helper.settings.BeanCopyHelperPluginSettings;
 import cn.ares.bean.copy.helper.util.LocaleSupport;
 import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo.Html;
@@ -30,24 +29,28 @@ import com.intellij.find.findUsages.FindUsagesManager;
 import com.intellij.find.findUsages.FindUsagesOptions;
 import com.intellij.find.findUsages.PsiElement2UsageTargetAdapter;
 import com.intellij.find.impl.FindManagerImpl;
-import com.intellij.ide.highlighter.JavaFileType;
 import com.intellij.openapi.actionSystem.ActionUpdateThread;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
-import com.intellij.openapi.application.Application;
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
 import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.DumbService;
-import com.intellij.openapi.project.IndexNotReadyException;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.startup.StartupActivity;
-import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.ManagingFS;
 import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
 import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
 import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
@@ -56,13 +59,15 @@ import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
 import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
 import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
 import com.intellij.pom.Navigatable;
-import com.intellij.psi.JavaRecursiveElementVisitor;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiExpression;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
 import com.intellij.psi.PsiJavaFile;
 import com.intellij.psi.PsiLiteralExpression;
 import com.intellij.psi.PsiManager;
@@ -73,8 +78,9 @@ import com.intellij.psi.PsiModifier;
 import com.intellij.psi.PsiModifierList;
 import com.intellij.psi.PsiReferenceExpression;
 import com.intellij.psi.PsiTypes;
-import com.intellij.psi.search.FileTypeIndex;
-import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.GlobalSearchScopesCore;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.usageView.UsageInfo;
 import com.intellij.usages.Usage;
@@ -82,23 +88,26 @@ import com.intellij.usages.UsageInfo2UsageAdapter;
 import com.intellij.usages.UsageTarget;
 import com.intellij.usages.UsageViewManager;
 import com.intellij.usages.UsageViewPresentation;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.messages.MessageBusConnection;
-import java.io.File;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.concurrency.CancellablePromise;
 
-import static cn.ares.bean.copy.helper.constant.Mark.DIFF;
-import static cn.ares.bean.copy.helper.constant.Mark.IGNORED;
 import static cn.ares.bean.copy.helper.constant.Mark.SAME;
-import static cn.ares.bean.copy.helper.constant.Mark.TYPE_NOT_MATCH;
-import static cn.ares.bean.copy.helper.resolve.impl.SpringBeanCopierResolveImpl.SPRING_BEAN_COPIER_CLASS_NAME;
 
 
 /**
@@ -116,35 +125,80 @@ public class BeanCopyHelper extends AnAction implements StartupActivity.DumbAwar
 
   public static final Html METHOD_NOT_SUPPORTED_HTML = new Html(LocaleSupport.formatMessage("method.not.supported"));
 
-  private static final List<BeanCopyResolve> RESOLVE_STRATEGIE_LIST = List.of(
-      new ApacheBeanCopyResolveImpl(),
-      new SpringBeanCopyResolveImpl(),
-      new HutoolBeanCopyResolveImpl(),
-      new SpringBeanCopierResolveImpl(),
-      new BootBeanCopyResolveImpl()
-  );
+  private static final String SCAN_TASK_TITLE = LocaleSupport.formatMessage("scan.task.title");
+  private static final String FIND_TASK_TITLE = LocaleSupport.formatMessage("find.task.title");
+  /**
+   * 每个非阻塞读操作处理的文件数, 批次越小被写操作打断后重试的代价越低
+   */
+  private static final int SCAN_BATCH_SIZE = 16;
+  private static final ExecutorService SCAN_EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+      "BeanCopyHelper Scan", Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
 
-  private static final Set<String> BEAN_COPY_METHOD_SET = new HashSet<>();
   private static final Set<String> DEFAULT_IGNORE_PROPERTIES = new HashSet<>();
 
   static {
-    BEAN_COPY_METHOD_SET.add("copyProperties");
-    BEAN_COPY_METHOD_SET.add("BeanUtil.copyProperties");
-    BEAN_COPY_METHOD_SET.add("BeanUtils.copyProperties");
-    for (BeanCopyResolve beanCopyResolve : RESOLVE_STRATEGIE_LIST) {
-      BEAN_COPY_METHOD_SET.add(beanCopyResolve.qualifiedName() + ".copyProperties");
-    }
-    BEAN_COPY_METHOD_SET.add("BeanCopier.create");
-    BEAN_COPY_METHOD_SET.add(SPRING_BEAN_COPIER_CLASS_NAME + ".create");
-    BEAN_COPY_METHOD_SET.add("BeanCopyUtil.copy");
-    BEAN_COPY_METHOD_SET.add("BeanCopyUtil.copyPropertiesIgnoreNull");
-
     // 默认忽略的属性如serialVersionUID
     DEFAULT_IGNORE_PROPERTIES.add("serialVersionUID");
   }
 
+  /**
+   * 复制方法由各解析策略通过扩展点声明
+   */
   public static boolean isBeanCopyMethod(String canonicalText) {
-    return BEAN_COPY_METHOD_SET.contains(canonicalText);
+    return BeanCopyResolveRegistry.getInstance().getMethodTextSet().contains(canonicalText);
+  }
+
+  /**
+   * 只比较方法名, 不会构建限定符的文本, 在遍历所有方法调用时先用它排除绝大多数无关调用
+   */
+  public static boolean isBeanCopyMethodName(PsiReferenceExpression methodExpression) {
+    String referenceName = methodExpression.getReferenceName();
+    return null != referenceName && getBeanCopyMethodNameSet().contains(referenceName);
+  }
+
+  /**
+   * 方法名命中后才比较调用表达式的文本
+   */
+  public static boolean isBeanCopyMethod(PsiReferenceExpression methodExpression) {
+    if (!isBeanCopyMethodName(methodExpression)) {
+      return false;
+    }
+    String methodText = getMethodText(methodExpression);
+    return null != methodText && isBeanCopyMethod(methodText);
+  }
+
+  /**
+   * 由限定符的引用名和方法名拼接调用表达式的文本, 如BeanUtils.copyProperties, 不resolve,
+   * 不包含空白、换行、注释和类型参数, 索引阶段也可以调用
+   *
+   * @return 限定符不是引用(如方法调用的返回值)时返回null
+   */
+  public static String getMethodText(PsiReferenceExpression methodExpression) {
+    String referenceName = methodExpression.getReferenceName();
+    if (null == referenceName) {
+      return null;
+    }
+    StringBuilder methodText = new StringBuilder(referenceName);
+    PsiElement qualifier = methodExpression.getQualifier();
+    while (null != qualifier) {
+      if (!(qualifier instanceof PsiJavaCodeReferenceElement qualifierReference) || null == qualifierReference.getReferenceName()) {
+        return null;
+      }
+      methodText.insert(0, '.').insert(0, qualifierReference.getReferenceName());
+      qualifier = qualifierReference.getQualifier();
+    }
+    return methodText.toString();
+  }
+
+  public static Set<String> getBeanCopyMethodNameSet() {
+    return BeanCopyResolveRegistry.getInstance().getMethodNameSet();
+  }
+
+  /**
+   * 包含属性复制调用的文件至少会出现其中一个标识符
+   */
+  public static Set<String> getBeanCopyTokenSet() {
+    return BeanCopyResolveRegistry.getInstance().getTokenSet();
   }
 
 
@@ -164,8 +218,7 @@ public class BeanCopyHelper extends AnAction implements StartupActivity.DumbAwar
     if (methodCallExpression == null) {
       return false;
     }
-    String canonicalText = methodCallExpression.getMethodExpression().getCanonicalText();
-    return isBeanCopyMethod(canonicalText);
+    return isBeanCopyMethod(methodCallExpression.getMethodExpression());
   }
 
 
@@ -186,12 +239,9 @@ public class BeanCopyHelper extends AnAction implements StartupActivity.DumbAwar
     if (null == methodCallExpression) {
       return null;
     }
-    for (BeanCopyResolve beanCopyResolve : RESOLVE_STRATEGIE_LIST) {
-      if (beanCopyResolve.isSupport(methodCallExpression)) {
-        return beanCopyResolve.resolve(methodCallExpression);
-      }
-    }
-    return null;
+    // 只resolve一次, 按全限类名查表选择策略
+    BeanCopyResolve beanCopyResolve = BeanCopyResolveRegistry.getInstance().getDispatcher().dispatch(methodCallExpression);
+    return null == beanCopyResolve ? null : beanCopyResolve.resolve(methodCallExpression);
   }
 
   public static Result invoke(Editor editor, PsiFile file) {
@@ -206,45 +256,20 @@ public class BeanCopyHelper extends AnAction implements StartupActivity.DumbAwar
     }
   }
 
-  public static void markProperties(Set<String> ignoreProperties, Map<String, Property> propertyMap, Map<String, Property> lowerCasePropertyMap, Property property) {
-    Mark mark;
-    // 是否是忽略的
-    String propertyName = property.getName();
-    if (DEFAULT_IGNORE_PROPERTIES.contains(propertyName) || ignoreProperties.contains(propertyName)) {
-      mark = IGNORED;
-    } else {
-      Property targetProperty = BeanCopyResolve.getProperty(propertyMap, lowerCasePropertyMap, propertyName);
-      // 是否同名
-      if (null == targetProperty) {
-        mark = DIFF;
-      } else {
-        // 是否同类型
-        if (property.equals(targetProperty) || (!lowerCasePropertyMap.isEmpty() && property.equalsIgnoreCase(targetProperty))) {
-          mark = SAME;
-        } else {
-          mark = TYPE_NOT_MATCH;
-        }
-      }
-    }
-    property.setMark(mark);
+  /**
+   * 默认忽略的属性和调用时指定忽略的属性
+   */
+  public static boolean isIgnoredProperty(Set<String> ignoreProperties, String propertyName) {
+    return DEFAULT_IGNORE_PROPERTIES.contains(propertyName) || ignoreProperties.contains(propertyName);
   }
 
+  /**
+   * 会被复制的属性名, 返回共享的不可修改的有序集合, 不会修改结果
+   */
   public static Set<String> findCommonPropertyNameSet(Result result) {
-    return findCommonPropertyNameSet(result.sourcePropertyMap.keySet(), result.targetPropertyMap.keySet(), result.ignoredProperties());
+    return result.matching().commonPropertyNameSet();
   }
 
-  public static Set<String> findCommonPropertyNameSet(Set<String> sourceClassFieldSet, Set<String> targetClassFieldSet, Set<String> ignoreProperties) {
-    sourceClassFieldSet.retainAll(targetClassFieldSet);
-    // 移除忽略字段
-    if (!ignoreProperties.isEmpty()) {
-      ignoreProperties.forEach(sourceClassFieldSet::remove);
-    }
-    DEFAULT_IGNORE_PROPERTIES.forEach(sourceClassFieldSet::remove);
-
-    return sourceClassFieldSet.stream().sorted().collect(Collectors.toCollection(TreeSet::new));
-  }
-
-
   public static Set<String> getIgnoreProperties(PsiExpression[] expressions) {
     if (expressions.length > 2) {
       return Stream.of(expressions)
@@ -258,27 +283,91 @@ public class BeanCopyHelper extends AnAction implements StartupActivity.DumbAwar
   @Override
   public void runActivity(@NotNull Project project) {
     DumbService.getInstance(project).runWhenSmart(() -> {
+      LOGGER.info("start scan project: " + project.getName());
+      CopyPropertiesReferenceIndex.getInstance(project);
       // 注意要在后台线程执行，避免主线程卡顿
-      Application application = ApplicationManager.getApplication();
-      application.executeOnPooledThread(() -> {
-        LOGGER.info("start scan project: " + project.getName());
-        CopyPropertiesReferenceIndex.init(project);
-
-        application.runReadAction(() -> {
-          Collection<VirtualFile> javaFiles = FileTypeIndex.getFiles(JavaFileType.INSTANCE, GlobalSearchScope.projectScope(project));
-          PsiManager manager = PsiManager.getInstance(project);
-
-          // 直接在当前读操作中处理文件，避免嵌套线程
-          for (VirtualFile virtualFile : javaFiles) {
-            if (null != virtualFile) {
-              copyPropertiesReferenceScan(virtualFile, manager);
-            }
-          }
-        });
-      });
+      new Task.Backgroundable(project, SCAN_TASK_TITLE, true) {
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+          scanProject(project, indicator);
+        }
+      }.queue();
     });
-    // 启动文件变更监听
-    startFileChangeListener(project);
+    // 启动文件变更监听, 变更的文件经过去重和合并后再批量扫描
+    CopyPropertiesRescanQueue rescanQueue = new CopyPropertiesRescanQueue(project,
+        virtualFiles -> scanFiles(project, virtualFiles, new EmptyProgressIndicator()),
+        () -> reanalyzeDirtyCode(project, new EmptyProgressIndicator()));
+    // 编辑器中未保存的修改通过PSI变更跟踪, 输入停顿后在后台只重新分析发生变化的方法体
+    CopyPropertiesChangeTracker.getInstance(project).setDirtyListener(rescanQueue::queueReanalyze);
+    startFileChangeListener(project, rescanQueue);
+  }
+
+  private void scanProject(@NotNull Project project, @NotNull ProgressIndicator indicator) {
+    indicator.setIndeterminate(false);
+    // 只处理持久化索引中记录了属性复制调用的文件, 避免全量遍历项目
+    List<VirtualFile> javaFiles = ReadAction.nonBlocking(() -> List.copyOf(CopyPropertiesCallSiteIndex.getContainingFiles(project)))
+        .inSmartMode(project)
+        .expireWith(project)
+        .wrapProgress(indicator)
+        .executeSynchronously();
+    scanFiles(project, javaFiles, indicator);
+    LOGGER.info("scan project end: " + project.getName());
+  }
+
+  /**
+   * 按批次在非阻塞读操作中并行扫描, 写操作到来时批次会被取消并自动重试, 不会阻塞输入
+   */
+  private void scanFiles(@NotNull Project project, @NotNull List<VirtualFile> javaFiles, @NotNull ProgressIndicator indicator) {
+    if (javaFiles.isEmpty()) {
+      return;
+    }
+
+    PsiManager manager = PsiManager.getInstance(project);
+    int batchCount = (javaFiles.size() + SCAN_BATCH_SIZE - 1) / SCAN_BATCH_SIZE;
+    AtomicInteger finishedBatchCount = new AtomicInteger();
+    List<CancellablePromise<Void>> promiseList = new ArrayList<>(batchCount);
+    for (int fromIndex = 0; fromIndex < javaFiles.size(); fromIndex += SCAN_BATCH_SIZE) {
+      List<VirtualFile> batch = javaFiles.subList(fromIndex, Math.min(fromIndex + SCAN_BATCH_SIZE, javaFiles.size()));
+      CancellablePromise<Void> promise = ReadAction.nonBlocking(() -> {
+            for (VirtualFile virtualFile : batch) {
+              ProgressManager.checkCanceled();
+              rescanFile(virtualFile, manager);
+            }
+            return (Void) null;
+          })
+          .inSmartMode(project)
+          .expireWith(project)
+          .wrapProgress(indicator)
+          .submit(SCAN_EXECUTOR);
+      promise.onSuccess(ignored -> indicator.setFraction((double) finishedBatchCount.incrementAndGet() / batchCount));
+      promiseList.add(promise);
+    }
+
+    try {
+      for (CancellablePromise<Void> promise : promiseList) {
+        awaitBatch(promise, indicator);
+      }
+    } catch (ProcessCanceledException processCanceledException) {
+      promiseList.forEach(promise -> promise.cancel());
+      throw processCanceledException;
+    }
+  }
+
+  private void awaitBatch(CancellablePromise<Void> promise, ProgressIndicator indicator) {
+    while (!promise.isDone()) {
+      indicator.checkCanceled();
+      try {
+        promise.blockingGet(100, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException ignored) {
+        // 继续等待, 期间检查任务是否被取消
+      } catch (CancellationException cancellationException) {
+        // 项目关闭时批次会随之过期
+        return;
+      } catch (ExecutionException executionException) {
+        LOGGER.warn("scan batch fail:", executionException.getCause());
+        return;
+      }
+    }
   }
 
   private void copyPropertiesReferenceScan(VirtualFile virtualFile, PsiManager manager) {
@@ -286,79 +375,40 @@ public class BeanCopyHelper extends AnAction implements StartupActivity.DumbAwar
       if (null == virtualFile || !virtualFile.isValid()) {
         return;
       }
+      // 先查索引, 没有属性复制调用或已不在项目中的文件不需要构建PSI, 只需剔除它之前的引用
+      Project project = manager.getProject();
+      if (!ProjectFileIndex.getInstance(project).isInContent(virtualFile)
+          || !CopyPropertiesCallSiteIndex.hasCallSites(project, virtualFile)) {
+        CopyPropertiesReferenceIndex.getInstance(project).removeFileReferences(virtualFile);
+        return;
+      }
       PsiFile file = manager.findFile(virtualFile);
+      // 索引保存的是文档坐标下的偏移量, 文档未提交时PSI中的偏移量是旧的, 留到提交后再整体分析
+      if (null != file && isUncommitted(file)) {
+        CopyPropertiesChangeTracker.getInstance(project).markFileDirty(file);
+        return;
+      }
       if (file instanceof PsiJavaFile javaFile) {
         LOGGER.info("start scan file: " + virtualFile.getPath());
-        // 扫描单个文件
+        // 扫描单个文件, 调用点来自持久化索引
         try {
-          javaFile.accept(new JavaRecursiveElementVisitor() {
-            @Override
-            public void visitMethodCallExpression(@NotNull PsiMethodCallExpression methodCallExpression) {
-              try {
-                super.visitMethodCallExpression(methodCallExpression);
-                PsiReferenceExpression methodExpression = methodCallExpression.getMethodExpression();
-                String canonicalText = methodExpression.getCanonicalText();
-                if (isBeanCopyMethod(canonicalText)) {
-                  Result result = invoke(methodCallExpression);
-                  if (null == result) {
-                    return;
-                  }
-
-                  PsiClass sourceClass = result.sourceClass();
-                  PsiClass targetClass = result.targetClass();
-
-                  if (sourceClass == null || targetClass == null) {
-                    return;
-                  }
-
-                  Map<String, Property> targetPropertyMap = result.targetPropertyMap();
-                  Set<String> sameProperties = targetPropertyMap.values().stream()
-                      .filter(property -> SAME == property.getMark())
-                      .map(Property::getName)
-                      .collect(Collectors.toSet());
-                  if (!sameProperties.isEmpty()) {
-                    Set<String> setterMethodSet = new HashSet<>();
-                    Set<String> getterMethodSet = new HashSet<>();
-                    sameProperties.forEach(propertyName -> {
-                      String suffix = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
-                      setterMethodSet.add("set" + suffix);
-                      getterMethodSet.add("get" + suffix);
-                    });
-                    for (PsiMethod method : targetClass.getMethods()) {
-                      if (setterMethodSet.contains(method.getName()) && validSetterMethod(method)) {
-                        CopyPropertiesReferenceIndex.addReference(method, methodCallExpression);
-                      }
-                    }
-                    for (PsiMethod method : sourceClass.getMethods()) {
-                      if (getterMethodSet.contains(method.getName()) && validGetterMethod(method)) {
-                        CopyPropertiesReferenceIndex.addReference(method, methodCallExpression);
-                      }
-                    }
-
-                    // 添加使用了lombok的类的字段的引用
-                    if (hasSetterLombokAnnotation(targetClass)) {
-                      sameProperties.forEach(propertyName -> {
-                        PsiField field = targetClass.findFieldByName(propertyName, true);
-                        if (null != field) {
-                          CopyPropertiesReferenceIndex.addReference(field, methodCallExpression);
-                        }
-                      });
-                    }
-                    if (hasGetterLombokAnnotation(sourceClass)) {
-                      sameProperties.forEach(propertyName -> {
-                        PsiField field = sourceClass.findFieldByName(propertyName, true);
-                        if (null != field) {
-                          CopyPropertiesReferenceIndex.addReference(field, methodCallExpression);
-                        }
-                      });
-                    }
-                  }
-                }
-              } catch (Throwable throwable) {
-                LOGGER.warn("scan file: " + virtualFile.getPath() + " fail:", throwable);
+          Map<PsiMethodCallExpression, List<PsiMember>> referenceMap = new HashMap<>();
+          for (PsiMethodCallExpression methodCallExpression : CopyPropertiesCallSiteIndex.getCallSites(javaFile)) {
+            try {
+              List<PsiMember> memberList = collectCopyPropertiesMembers(methodCallExpression);
+              if (!memberList.isEmpty()) {
+                referenceMap.put(methodCallExpression, memberList);
               }
+            } catch (ProcessCanceledException processCanceledException) {
+              throw processCanceledException;
+            } catch (Throwable throwable) {
+              LOGGER.warn("scan file: " + virtualFile.getPath() + " fail:", throwable);
             }
-          });
+          }
+          // 整个文件扫描完成后再替换, 被写操作打断重试时不会留下半个文件的引用
+          CopyPropertiesReferenceIndex.getInstance(project).replaceFileReferences(virtualFile, referenceMap);
+        } catch (ProcessCanceledException processCanceledException) {
+          throw processCanceledException;
         } catch (Throwable throwable) {
           String message = throwable.getMessage();
           if (message != null && message.contains("Outdated stub in index")) {
@@ -369,11 +419,76 @@ public class BeanCopyHelper extends AnAction implements StartupActivity.DumbAwar
         }
         LOGGER.info("scan file end: " + virtualFile.getPath());
       }
+    } catch (ProcessCanceledException processCanceledException) {
+      throw processCanceledException;
     } catch (Throwable throwable) {
       LOGGER.warn("scan file: " + virtualFile.getPath() + " fail:", throwable);
     }
   }
 
+  private List<PsiMember> collectCopyPropertiesMembers(PsiMethodCallExpression methodCallExpression) {
+    Result result = invoke(methodCallExpression);
+    if (null == result) {
+      return List.of();
+    }
+
+    PsiClass sourceClass = result.sourceClass();
+    PsiClass targetClass = result.targetClass();
+
+    if (sourceClass == null || targetClass == null) {
+      return List.of();
+    }
+
+    List<PsiMember> memberList = new ArrayList<>();
+
+    PropertyMatching matching = result.matching();
+    Set<String> sameProperties = new HashSet<>();
+    for (int i = 0; i < matching.targetSize(); i++) {
+      Property targetProperty = matching.targetProperty(i);
+      if (SAME == targetProperty.getMark()) {
+        sameProperties.add(targetProperty.getName());
+      }
+    }
+    if (!sameProperties.isEmpty()) {
+      Set<String> setterMethodSet = new HashSet<>();
+      Set<String> getterMethodSet = new HashSet<>();
+      sameProperties.forEach(propertyName -> {
+        String suffix = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+        setterMethodSet.add("set" + suffix);
+        getterMethodSet.add("get" + suffix);
+      });
+      for (PsiMethod method : targetClass.getMethods()) {
+        if (setterMethodSet.contains(method.getName()) && validSetterMethod(method)) {
+          memberList.add(method);
+        }
+      }
+      for (PsiMethod method : sourceClass.getMethods()) {
+        if (getterMethodSet.contains(method.getName()) && validGetterMethod(method)) {
+          memberList.add(method);
+        }
+      }
+
+      // 添加使用了lombok的类的字段的引用
+      if (hasSetterLombokAnnotation(targetClass)) {
+        sameProperties.forEach(propertyName -> {
+          PsiField field = targetClass.findFieldByName(propertyName, true);
+          if (null != field) {
+            memberList.add(field);
+          }
+        });
+      }
+      if (hasGetterLombokAnnotation(sourceClass)) {
+        sameProperties.forEach(propertyName -> {
+          PsiField field = sourceClass.findFieldByName(propertyName, true);
+          if (null != field) {
+            memberList.add(field);
+          }
+        });
+      }
+    }
+    return memberList;
+  }
+
   private boolean hasGetterLombokAnnotation(PsiClass sourceClass) {
     PsiModifierList modifierList = sourceClass.getModifierList();
     if (modifierList != null) {
@@ -415,48 +530,177 @@ public class BeanCopyHelper extends AnAction implements StartupActivity.DumbAwar
         && !method.hasModifierProperty(PsiModifier.STATIC);
   }
 
-  private void startFileChangeListener(@NotNull Project project) {
-    MessageBusConnection connection = project.getMessageBus().connect();
+  private void startFileChangeListener(@NotNull Project project, @NotNull CopyPropertiesRescanQueue rescanQueue) {
+    MessageBusConnection connection = project.getMessageBus().connect(rescanQueue);
     connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void before(@NotNull List<? extends VFileEvent> events) {
+        // 删除事件需要在文件失效前处理, 切换分支时的大批量删除也只遍历一次索引
+        List<VirtualFile> deletedFileList = new ArrayList<>();
+        for (VFileEvent event : events) {
+          if (event instanceof VFileDeleteEvent fileDeleteEvent) {
+            deletedFileList.add(fileDeleteEvent.getFile());
+          }
+        }
+        CopyPropertiesReferenceIndex.getInstance(project).evictFiles(deletedFileList);
+      }
+
       @Override
       public void after(@NotNull List<? extends VFileEvent> events) {
-        Application application = ApplicationManager.getApplication();
-        application.executeOnPooledThread(() ->
-            DumbService.getInstance(project).runWhenSmart(() ->
-                application.runReadAction(() -> {
-                  PsiManager manager = PsiManager.getInstance(project);
-                  for (VFileEvent event : events) {
-                    handleEvent(event, manager, project);
-                  }
-                })));
+        List<VirtualFile> changedFileList = new ArrayList<>();
+        for (VFileEvent event : events) {
+          VirtualFile changedFile = getChangedFile(event);
+          if (null != changedFile) {
+            changedFileList.add(changedFile);
+          }
+        }
+        rescanQueue.queue(changedFileList);
       }
     });
   }
 
-  private void handleEvent(VFileEvent event, PsiManager manager, @NotNull Project project) {
+  private VirtualFile getChangedFile(VFileEvent event) {
     if (event instanceof VFileCreateEvent fileCreateEvent) {
       // 扫描新增文件
-      VirtualFile virtualFile = fileCreateEvent.getFile();
-      copyPropertiesReferenceScan(virtualFile, manager);
+      return fileCreateEvent.getFile();
     } else if (event instanceof VFileCopyEvent fileCopyEvent) {
-      // 对于复制事件，需要延迟处理以获取真实文件
-      Application application = ApplicationManager.getApplication();
-      application.executeOnPooledThread(() ->
-          DumbService.getInstance(project).runWhenSmart(() -> application.runReadAction(() -> {
-            VirtualFile virtualFile = LocalFileSystem.getInstance()
-                .refreshAndFindFileByIoFile(new File(fileCopyEvent.getPath()));
-            if (null != virtualFile) {
-              copyPropertiesReferenceScan(virtualFile,
-                  PsiManager.getInstance(project));
-            }
-          })));
+      return fileCopyEvent.findCreatedFile();
     } else if (event instanceof VFileContentChangeEvent fileContentChangeEvent) {
-      VirtualFile virtualFile = fileContentChangeEvent.getFile();
-      copyPropertiesReferenceScan(virtualFile, manager);
-    } else if (event instanceof VFileDeleteEvent fileDeleteEvent) {
+      // 保存文档引起的变更已经由PSI变更跟踪处理, 无需重新扫描整个文件
+      return fileContentChangeEvent.isFromSave() ? null : fileContentChangeEvent.getFile();
     } else if (event instanceof VFileMoveEvent fileMoveEvent) {
-    } else if (event instanceof VFilePropertyChangeEvent filePropertyChangeEvent) {
+      // 移动后包名可能变化, 或被移出项目
+      return fileMoveEvent.getFile();
+    } else if (event instanceof VFilePropertyChangeEvent filePropertyChangeEvent && filePropertyChangeEvent.isRename()) {
+      // 重命名后可能不再是java文件, 目录重命名会改变包名
+      return filePropertyChangeEvent.getFile();
     }
+    // 删除事件已在before中处理
+    return null;
+  }
+
+  private void rescanFile(VirtualFile virtualFile, PsiManager manager) {
+    if (!virtualFile.isValid()) {
+      return;
+    }
+    if (!virtualFile.isDirectory()) {
+      copyPropertiesReferenceScan(virtualFile, manager);
+      return;
+    }
+    // 目录需要展开为其下已有引用的文件和索引中包含属性复制调用的文件
+    Set<VirtualFile> affectedFileSet = new HashSet<>(CopyPropertiesReferenceIndex.getInstance(manager.getProject()).getReferencedFiles(virtualFile));
+    affectedFileSet.addAll(CopyPropertiesCallSiteIndex.getContainingFiles(GlobalSearchScopesCore.directoryScope(manager.getProject(), virtualFile, true)));
+    for (VirtualFile affectedFile : affectedFileSet) {
+      ProgressManager.checkCanceled();
+      copyPropertiesReferenceScan(affectedFile, manager);
+    }
+  }
+
+  /**
+   * 重新分析编辑器中发生变化的代码, 在后台线程调用. 脏数据在读操作之外取出, 读操作被写操作打断重试时使用同一批数据
+   */
+  private void reanalyzeDirtyCode(Project project, ProgressIndicator indicator) {
+    CopyPropertiesChangeTracker changeTracker = CopyPropertiesChangeTracker.getInstance(project);
+    if (!changeTracker.hasDirty()) {
+      return;
+    }
+    List<Integer> dirtyFileIdList = changeTracker.drainDirtyFiles();
+    Map<Integer, Set<SmartPsiElementPointer<PsiMember>>> dirtyMemberMap = changeTracker.drainDirtyMembers();
+    try {
+      ReadAction.nonBlocking(() -> {
+            reanalyzeDirtyCode(project, dirtyFileIdList, dirtyMemberMap);
+            return (Void) null;
+          })
+          .inSmartMode(project)
+          .withDocumentsCommitted(project)
+          .expireWith(project)
+          .wrapProgress(indicator)
+          .executeSynchronously();
+    } catch (ProcessCanceledException processCanceledException) {
+      // 被取消时整个文件放回, 下次重新分析
+      if (!project.isDisposed()) {
+        List<Integer> fileIdList = new ArrayList<>(dirtyFileIdList);
+        fileIdList.addAll(dirtyMemberMap.keySet());
+        changeTracker.markFilesDirty(fileIdList);
+      }
+    } finally {
+      SmartPointerManager smartPointerManager = SmartPointerManager.getInstance(project);
+      dirtyMemberMap.values().forEach(memberSet -> memberSet.forEach(smartPointerManager::removePointer));
+    }
+  }
+
+  private void reanalyzeDirtyCode(Project project, List<Integer> dirtyFileIdList,
+      Map<Integer, Set<SmartPsiElementPointer<PsiMember>>> dirtyMemberMap) {
+    ManagingFS managingFS = ManagingFS.getInstance();
+    PsiManager manager = PsiManager.getInstance(project);
+    for (int fileId : dirtyFileIdList) {
+      ProgressManager.checkCanceled();
+      VirtualFile virtualFile = managingFS.findFileById(fileId);
+      if (null != virtualFile && virtualFile.isValid()) {
+        copyPropertiesReferenceScan(virtualFile, manager);
+      }
+    }
+    dirtyMemberMap.forEach((fileId, memberPointerSet) -> {
+      ProgressManager.checkCanceled();
+      VirtualFile virtualFile = managingFS.findFileById(fileId);
+      PsiFile file = null == virtualFile || !virtualFile.isValid() ? null : manager.findFile(virtualFile);
+      if (null != file) {
+        reanalyzeMembers(file, memberPointerSet, manager);
+      }
+    });
+  }
+
+  private void reanalyzeMembers(PsiFile file, Set<SmartPsiElementPointer<PsiMember>> memberPointerSet, PsiManager manager) {
+    VirtualFile virtualFile = file.getVirtualFile();
+    if (null == virtualFile) {
+      return;
+    }
+    List<PsiMember> memberList = new ArrayList<>(memberPointerSet.size());
+    for (SmartPsiElementPointer<PsiMember> memberPointer : memberPointerSet) {
+      PsiMember member = memberPointer.getElement();
+      // 方法被整体替换后无法定位旧的调用点, 退化为整个文件重新扫描
+      if (null == member || !member.isValid()) {
+        copyPropertiesReferenceScan(virtualFile, manager);
+        return;
+      }
+      memberList.add(member);
+    }
+    // 文档未提交时偏移量不可信, 也退化为整个文件重新扫描
+    if (isUncommitted(file)) {
+      copyPropertiesReferenceScan(virtualFile, manager);
+      return;
+    }
+    Map<PsiMethodCallExpression, List<PsiMember>> referenceMap = new HashMap<>();
+    for (PsiMember member : memberList) {
+      member.accept(new JavaRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitMethodCallExpression(@NotNull PsiMethodCallExpression methodCallExpression) {
+          super.visitMethodCallExpression(methodCallExpression);
+          if (isBeanCopyMethod(methodCallExpression.getMethodExpression())) {
+            try {
+              List<PsiMember> referencedMemberList = collectCopyPropertiesMembers(methodCallExpression);
+              if (!referencedMemberList.isEmpty()) {
+                referenceMap.put(methodCallExpression, referencedMemberList);
+              }
+            } catch (ProcessCanceledException processCanceledException) {
+              throw processCanceledException;
+            } catch (Throwable throwable) {
+              LOGGER.warn("reanalyze file: " + virtualFile.getPath() + " fail:", throwable);
+            }
+          }
+        }
+      });
+    }
+    // 只替换位于变化方法体内的调用点, 方法名被编辑过的调用点已标记为失效, 也会被替换
+    List<TextRange> memberRangeList = memberList.stream().map(PsiMember::getTextRange).toList();
+    CopyPropertiesReferenceIndex.getInstance(file.getProject()).replaceCallSites(virtualFile, referenceMap,
+        offset -> memberRangeList.stream().anyMatch(memberRange -> memberRange.contains(offset)));
+  }
+
+  private static boolean isUncommitted(PsiFile file) {
+    PsiDocumentManager psiDocumentManager = PsiDocumentManager.getInstance(file.getProject());
+    Document document = psiDocumentManager.getCachedDocument(file);
+    return null != document && psiDocumentManager.isUncommited(document);
   }
 
   @Override
@@ -480,43 +724,77 @@ public class BeanCopyHelper extends AnAction implements StartupActivity.DumbAwar
     anActionEvent.getPresentation().setEnabledAndVisible(visible);
   }
 
+  /**
+   * 只查询索引中是否有引用, 不定位PSI也不修改索引. 成员所在文件有待重新分析的修改时先显示, 执行时再重新分析,
+   * 已记录的引用所在文件的修改在重新分析前不会移除引用, 无需单独判断
+   */
   private boolean isVisible(PsiMember member) {
-    List<PsiMethodCallExpression> referenceList = CopyPropertiesReferenceIndex.getReferenceList(member);
-    return !referenceList.isEmpty();
+    Project project = member.getProject();
+    return CopyPropertiesReferenceIndex.getInstance(project).hasReferences(member)
+        || CopyPropertiesChangeTracker.getInstance(project).isDirty(member);
   }
 
   @Override
   public void actionPerformed(@NotNull AnActionEvent anActionEvent) {
     PsiElement element = anActionEvent.getData(CommonDataKeys.PSI_ELEMENT);
-    if (element instanceof PsiMember member) {
-      List<PsiMethodCallExpression> referenceList = CopyPropertiesReferenceIndex.getReferenceList(member);
-      if (referenceList.isEmpty()) {
-        return;
+    if (!(element instanceof PsiMember member)) {
+      return;
+    }
+    Project project = member.getProject();
+    SmartPsiElementPointer<PsiMember> memberPointer = SmartPointerManager.createPointer(member);
+    // 重新分析和定位调用点都在后台可取消的读操作中进行
+    new Task.Backgroundable(project, FIND_TASK_TITLE, true) {
+
+      private List<PsiMethodCallExpression> referenceList = List.of();
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        reanalyzeDirtyCode(project, indicator);
+        referenceList = ReadAction.nonBlocking(() -> CopyPropertiesReferenceIndex.getInstance(project).getReferenceList(memberPointer.getElement()))
+            .inSmartMode(project)
+            .expireWith(project)
+            .wrapProgress(indicator)
+            .executeSynchronously();
       }
 
-      if (referenceList.size() == 1) {
-        navigateTo(referenceList.getFirst());
-      } else {
-        Project project = member.getProject();
-        FindManager findManager = project.getService(FindManager.class);
-        if (findManager instanceof FindManagerImpl findManagerImpl) {
-          FindUsagesManager findUsagesManager = findManagerImpl.getFindUsagesManager();
-          FindUsagesHandler findUsagesHandler = findUsagesManager.getFindUsagesHandler(member, true);
-          FindUsagesOptions findUsagesOptions = null == findUsagesHandler ? new FindUsagesOptions(project) : findUsagesHandler.getFindUsagesOptions();
-          FindUsagesHandlerBase findUsagesHandlerBase = new FindUsagesHandlerBase(member);
-          UsageViewPresentation usageViewPresentation = findUsagesManager.createPresentation(findUsagesHandlerBase, findUsagesOptions);
-
-          UsageTarget[] usageTargets = new UsageTarget[]{new PsiElement2UsageTargetAdapter(member, true)};
-          Usage[] usages = referenceList.stream()
-              .map(reference -> new UsageInfo2UsageAdapter(new UsageInfo(reference)))
-              .toArray(Usage[]::new);
-          UsageViewManager.getInstance(project).showUsages(
-              usageTargets,
-              usages,
-              usageViewPresentation
-          );
+      @Override
+      public void onSuccess() {
+        PsiMember currentMember = memberPointer.getElement();
+        if (null != currentMember) {
+          showReferences(currentMember, referenceList);
         }
       }
+    }.queue();
+  }
+
+  private void showReferences(PsiMember member, List<PsiMethodCallExpression> referenceList) {
+    if (referenceList.isEmpty()) {
+      return;
+    }
+
+    if (referenceList.size() == 1) {
+      navigateTo(referenceList.getFirst());
+    } else {
+      Project project = member.getProject();
+      FindManager findManager = project.getService(FindManager.class);
+      if (findManager instanceof FindManagerImpl findManagerImpl) {
+        FindUsagesManager findUsagesManager = findManagerImpl.getFindUsagesManager();
+        FindUsagesHandler findUsagesHandler = findUsagesManager.getFindUsagesHandler(member, true);
+        FindUsagesOptions findUsagesOptions = null == findUsagesHandler ? new FindUsagesOptions(project) : findUsagesHandler.getFindUsagesOptions();
+        FindUsagesHandlerBase findUsagesHandlerBase = new FindUsagesHandlerBase(member);
+        UsageViewPresentation usageViewPresentation = findUsagesManager.createPresentation(findUsagesHandlerBase, findUsagesOptions);
+
+        UsageTarget[] usageTargets = new UsageTarget[]{new PsiElement2UsageTargetAdapter(member, true)};
+        Usage[] usages = referenceList.stream()
+            .filter(PsiElement::isValid)
+            .map(reference -> new UsageInfo2UsageAdapter(new UsageInfo(reference)))
+            .toArray(Usage[]::new);
+        UsageViewManager.getInstance(project).showUsages(
+            usageTargets,
+            usages,
+            usageViewPresentation
+        );
+      }
     }
   }
 
@@ -541,13 +819,29 @@ public class BeanCopyHelper extends AnAction implements StartupActivity.DumbAwar
     return fontSize;
   }
 
+  /**
+   * @param matching 按小写属性名排序的属性匹配结果, 属性名 -> 属性的Map在首次访问时构建
+   */
   public record Result(PsiClass sourceClass, PsiClass targetClass,
-                       Map<String, Property> sourcePropertyMap,
-                       Map<String, Property> targetPropertyMap,
-                       Map<String, Property> lowerCaseSourcePropertyMap,
-                       Map<String, Property> lowerCaseTargetPropertyMap,
+                       PropertyMatching matching,
                        Set<String> ignoredProperties) {
 
+    public Map<String, Property> sourcePropertyMap() {
+      return matching.sourcePropertyMap();
+    }
+
+    public Map<String, Property> targetPropertyMap() {
+      return matching.targetPropertyMap();
+    }
+
+    public Map<String, Property> lowerCaseSourcePropertyMap() {
+      return matching.lowerCaseSourcePropertyMap();
+    }
+
+    public Map<String, Property> lowerCaseTargetPropertyMap() {
+      return matching.lowerCaseTargetPropertyMap();
+    }
+
   }
 
 
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.action;
+
+import cn.ares.bean.copy.helper.util.LocaleSupport;
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.RangeMarker;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.function.BiFunction;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-28 09:52:16
+ * @description: 意图的执行流程, 在后台可取消的读操作中分析并生成文本, 只有最终修改文档时才进入短暂的写操作, 期间文档被修改则重新计算, 多次失败后提示
+ * @description: Runs an intention by analyzing and building text in a cancellable background read action, only the final document edit runs in a short write action, the analysis is rerun if the document changed meanwhile and a hint is shown after repeated failures
+ * @version: JDK 21
+ */
+final class BeanCopyIntentionRunner {
+
+  private static final String ANALYZE_TASK_TITLE = LocaleSupport.formatMessage("analyze.task.title");
+  private static final String CODE_CHANGED_MESSAGE = LocaleSupport.formatMessage("analyze.code.changed");
+
+  /**
+   * 分析期间文档被修改时重新计算的次数, 持续输入时放弃并提示
+   */
+  private static final int MAX_RETRY_COUNT = 3;
+
+  private BeanCopyIntentionRunner() {
+  }
+
+  /**
+   * 分析的结果, 替换文档中的一段文本或者只显示提示
+   *
+   * @param startOffset 替换的起始位置, 插入时与endOffset相同
+   * @param text 替换的文本, 为null时不修改文档
+   * @param hint 提示信息, 为null时不提示
+   */
+  record DocumentEdit(int startOffset, int endOffset, String text, String hint) {
+
+    static DocumentEdit insert(int offset, String text) {
+      return new DocumentEdit(offset, offset, text, null);
+    }
+
+    static DocumentEdit replace(int startOffset, int endOffset, String text) {
+      return new DocumentEdit(startOffset, endOffset, text, null);
+    }
+
+    static DocumentEdit hint(String hint) {
+      return new DocumentEdit(-1, -1, null, hint);
+    }
+
+  }
+
+  /**
+   * 在EDT上调用, 立即返回
+   *
+   * @param editFunction 在读操作中执行, 根据光标所在的调用生成修改, 不需要修改时返回null
+   */
+  static void run(Project project, Editor editor, PsiFile file, String commandName,
+      BiFunction<PsiMethodCallExpression, Document, DocumentEdit> editFunction) {
+    // 重新计算时光标可能已经移走, 跟踪的是唤起意图时的位置
+    RangeMarker caretMarker = editor.getDocument().createRangeMarker(editor.getCaretModel().getOffset(), editor.getCaretModel().getOffset());
+    run(project, editor, file, commandName, editFunction, caretMarker, 0);
+  }
+
+  private static void run(Project project, Editor editor, PsiFile file, String commandName,
+      BiFunction<PsiMethodCallExpression, Document, DocumentEdit> editFunction, RangeMarker caretMarker, int retryCount) {
+    Document document = editor.getDocument();
+    int offset = caretMarker.getStartOffset();
+    long modificationStamp = document.getModificationStamp();
+
+    new Task.Backgroundable(project, ANALYZE_TASK_TITLE, true) {
+
+      private DocumentEdit documentEdit;
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        documentEdit = ReadAction.nonBlocking(() -> {
+              if (!file.isValid()) {
+                return null;
+              }
+              PsiElement elementAtCaret = file.findElementAt(offset);
+              PsiMethodCallExpression methodCallExpression = PsiTreeUtil.getParentOfType(elementAtCaret, PsiMethodCallExpression.class);
+              return null == methodCallExpression ? null : editFunction.apply(methodCallExpression, document);
+            })
+            .withDocumentsCommitted(project)
+            .expireWhen(() -> document.getModificationStamp() != modificationStamp)
+            .expireWith(project)
+            .wrapProgress(indicator)
+            .executeSynchronously();
+      }
+
+      @Override
+      public void onSuccess() {
+        if (editor.isDisposed()) {
+          caretMarker.dispose();
+          return;
+        }
+        // 分析期间文档被修改, 计算出的位置已经失效
+        if (document.getModificationStamp() != modificationStamp) {
+          retryOrCancel();
+          return;
+        }
+        caretMarker.dispose();
+        if (null == documentEdit) {
+          return;
+        }
+        if (null != documentEdit.hint()) {
+          HintManager.getInstance().showInformationHint(editor, documentEdit.hint());
+        }
+        if (null == documentEdit.text()) {
+          return;
+        }
+        WriteCommandAction.runWriteCommandAction(project, commandName, null, () -> {
+          document.replaceString(documentEdit.startOffset(), documentEdit.endOffset(), documentEdit.text());
+          PsiDocumentManager.getInstance(project).commitDocument(document);
+        }, file);
+      }
+
+      @Override
+      public void onCancel() {
+        // 用户主动取消时不再重试, 因文档修改而过期时在唤起位置跟随修改后的偏移量上重新计算
+        if (!editor.isDisposed() && document.getModificationStamp() != modificationStamp) {
+          retryOrCancel();
+        } else {
+          caretMarker.dispose();
+        }
+      }
+
+      private void retryOrCancel() {
+        if (retryCount < MAX_RETRY_COUNT && caretMarker.isValid()) {
+          BeanCopyIntentionRunner.run(project, editor, file, commandName, editFunction, caretMarker, retryCount + 1);
+        } else {
+          caretMarker.dispose();
+          HintManager.getInstance().showErrorHint(editor, CODE_CHANGED_MESSAGE);
+        }
+      }
+    }.queue();
+  }
+
+}
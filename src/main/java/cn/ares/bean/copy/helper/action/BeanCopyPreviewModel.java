@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.action;
+
+import cn.ares.bean.copy.helper.BeanCopyHelper;
+import cn.ares.bean.copy.helper.BeanCopyHelper.Result;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.Set;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-29 14:21:05
+ * @description: 意图预览使用的模型, 缓存在原始文件的调用表达式上直到文件或Java结构发生变化, 三个意图共享. 预览在文件副本上进行, 副本中的调用按位置和文本对应回原始文件中的调用
+ * @description: Model used by intention previews, cached on the call expression of the original file until the file or the Java structure changes and shared by the three intentions. Previews run on a copy of the file, so the call in the copy is mapped back to the original call by range and text
+ * @version: JDK 21
+ *
+ * @param result 复制结果, 为null时表示不支持的方法
+ * @param commonPropertyNameSet 会被复制的属性名
+ * @param sourceArgumentText 第一个参数的文本
+ */
+record BeanCopyPreviewModel(Result result, Set<String> commonPropertyNameSet, String sourceArgumentText) {
+
+  private static final BeanCopyPreviewModel NOT_SUPPORTED = new BeanCopyPreviewModel(null, Set.of(), "");
+
+  /**
+   * 获取光标所在调用的预览模型
+   *
+   * @return 光标不在方法调用上时返回null
+   */
+  static BeanCopyPreviewModel of(Editor editor, PsiFile file) {
+    PsiElement elementAtCaret = file.findElementAt(editor.getCaretModel().getOffset());
+    PsiMethodCallExpression methodCallExpression = PsiTreeUtil.getParentOfType(elementAtCaret, PsiMethodCallExpression.class);
+    if (null == methodCallExpression) {
+      return null;
+    }
+    // 副本中的调用对应回原始文件中相同位置且文本相同的调用, 缓存在原始调用上, 对应不上时不缓存
+    PsiMethodCallExpression originalCallExpression = findOriginalCall(file, methodCallExpression);
+    if (null == originalCallExpression) {
+      return build(methodCallExpression);
+    }
+    return CachedValuesManager.getCachedValue(originalCallExpression, () -> CachedValueProvider.Result.create(build(originalCallExpression),
+        originalCallExpression.getContainingFile(),
+        PsiModificationTracker.getInstance(originalCallExpression.getProject()).forLanguage(JavaLanguage.INSTANCE)));
+  }
+
+  private static PsiMethodCallExpression findOriginalCall(PsiFile file, PsiMethodCallExpression methodCallExpression) {
+    PsiFile originalFile = file.getOriginalFile();
+    if (originalFile == file) {
+      return methodCallExpression;
+    }
+    TextRange textRange = methodCallExpression.getTextRange();
+    PsiElement originalElement = originalFile.findElementAt(textRange.getStartOffset());
+    PsiMethodCallExpression originalCallExpression = PsiTreeUtil.getParentOfType(originalElement, PsiMethodCallExpression.class, false);
+    // 最内层的调用可能是参数中的调用, 向外找到范围相同的那个
+    while (null != originalCallExpression && originalCallExpression.getTextRange().getEndOffset() < textRange.getEndOffset()) {
+      originalCallExpression = PsiTreeUtil.getParentOfType(originalCallExpression, PsiMethodCallExpression.class);
+    }
+    if (null == originalCallExpression || !textRange.equals(originalCallExpression.getTextRange())
+        || !methodCallExpression.textMatches(originalCallExpression)) {
+      return null;
+    }
+    return originalCallExpression;
+  }
+
+  private static BeanCopyPreviewModel build(PsiMethodCallExpression methodCallExpression) {
+    Result result = BeanCopyHelper.invoke(methodCallExpression);
+    if (null == result) {
+      return NOT_SUPPORTED;
+    }
+    PsiExpression[] expressions = methodCallExpression.getArgumentList().getExpressions();
+    String sourceArgumentText = expressions.length > 0 ? expressions[0].getText() : "";
+    return new BeanCopyPreviewModel(result, BeanCopyHelper.findCommonPropertyNameSet(result), sourceArgumentText);
+  }
+
+  boolean isSupported() {
+    return null != result;
+  }
+
+}
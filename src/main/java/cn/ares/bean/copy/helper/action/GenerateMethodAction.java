@@ -13,30 +13,25 @@ package cn.ares.bean.copy.helper.action;
 
 import cn.ares.bean.copy.helper.BeanCopyHelper;
 import cn.ares.bean.copy.helper.BeanCopyHelper.Result;
+import cn.ares.bean.copy.helper.action.BeanCopyIntentionRunner.DocumentEdit;
 import cn.ares.bean.copy.helper.util.CommonUtil;
+import cn.ares.bean.copy.helper.util.TemplateRenderer;
 import com.intellij.codeInsight.intention.IntentionAction;
 import com.intellij.codeInsight.intention.PriorityAction;
 import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo;
 import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo.Html;
 import com.intellij.codeInspection.util.IntentionFamilyName;
 import com.intellij.codeInspection.util.IntentionName;
-import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiDocumentManager;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiExpression;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiMethodCallExpression;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 
 import static cn.ares.bean.copy.helper.BeanCopyHelper.BEAN_COPY_HELPER;
@@ -47,6 +42,13 @@ import static cn.ares.bean.copy.helper.BeanCopyHelper.METHOD_NOT_SUPPORTED_HTML;
  */
 public class GenerateMethodAction implements IntentionAction, PriorityAction {
 
+  private static final TemplateRenderer DECLARATION_TEMPLATE = TemplateRenderer.compile("{}{} {} = new {}();\n");
+
+  private static final TemplateRenderer SETTER_TEMPLATE = TemplateRenderer.compile("{}{}.set{}({}.get{}());");
+
+  private static final TemplateRenderer HTML_LINE_TEMPLATE = TemplateRenderer.compile(
+      "<p style=\"font-family: Fira Code, monospace; font-size: {}px;\">{}</p>");
+
   @Override
   public @IntentionName @NotNull String getText() {
     return "BeanCopyHelper - Generate method";
@@ -64,107 +66,107 @@ public class GenerateMethodAction implements IntentionAction, PriorityAction {
 
   @Override
   public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
-    // 实现添加注释的具体逻辑
-    WriteCommandAction.runWriteCommandAction(project, () -> {
-      Document document = editor.getDocument();
-      int offset = editor.getCaretModel().getOffset();
-      PsiElement elementAtCaret = file.findElementAt(offset);
-      PsiMethodCallExpression methodCallExpression = PsiTreeUtil.getParentOfType(elementAtCaret, PsiMethodCallExpression.class);
-
-      if (null == methodCallExpression) {
-        return;
-      }
-
-      Result invoke = BeanCopyHelper.invoke(methodCallExpression);
-      if (null == invoke) {
-        return;
-      }
+    // 后台分析, 只有替换代码时进入写操作
+    BeanCopyIntentionRunner.run(project, editor, file, getText(), this::buildSetterMethodEdit);
+  }
 
-      PsiClass sourceClass = invoke.sourceClass();
-      PsiClass targetClass = invoke.targetClass();
-      if (null == sourceClass || null == targetClass) {
-        return;
-      }
+  private DocumentEdit buildSetterMethodEdit(PsiMethodCallExpression methodCallExpression, Document document) {
+    Result invoke = BeanCopyHelper.invoke(methodCallExpression);
+    if (null == invoke) {
+      return null;
+    }
 
-      // 计算要插入注释的位置
-      int lineNum = document.getLineNumber(methodCallExpression.getTextRange().getStartOffset());
-      int lineStartOffset = document.getLineStartOffset(lineNum);
-      int lineEndOffset = document.getLineEndOffset(lineNum);
-      // 缩进的位置
-      String linePrefix = document.getText(
-          new TextRange(lineStartOffset, methodCallExpression.getTextRange().getStartOffset()));
+    PsiClass sourceClass = invoke.sourceClass();
+    PsiClass targetClass = invoke.targetClass();
+    if (null == sourceClass || null == targetClass) {
+      return null;
+    }
 
-      String commentWithIndent = buildSetterMethod(linePrefix, methodCallExpression, invoke, false);
+    // 计算要插入注释的位置
+    int lineNum = document.getLineNumber(methodCallExpression.getTextRange().getStartOffset());
+    int lineStartOffset = document.getLineStartOffset(lineNum);
+    int lineEndOffset = document.getLineEndOffset(lineNum);
+    // 缩进的位置
+    String linePrefix = document.getText(
+        new TextRange(lineStartOffset, methodCallExpression.getTextRange().getStartOffset()));
 
-      document.replaceString(lineStartOffset, lineEndOffset, commentWithIndent);
-      PsiDocumentManager.getInstance(project).commitDocument(document);
-    });
+    PsiExpression[] expressions = methodCallExpression.getArgumentList().getExpressions();
+    String commentWithIndent = buildSetterMethod(linePrefix, expressions[0].getText(), invoke.targetClass(),
+        BeanCopyHelper.findCommonPropertyNameSet(invoke), false);
+    return DocumentEdit.replace(lineStartOffset, lineEndOffset, commentWithIndent);
   }
 
-  private String buildSetterMethod(String linePrefix, PsiMethodCallExpression methodCallExpression, Result invoke, boolean html) {
-    PsiClass targetClass = invoke.targetClass();
-    String targetClassName = targetClass.getName();
-    String referenceName = null == targetClassName ? "target" : CommonUtil.lowerFirst(targetClassName);
-    String codeText = String.format("%s%s %s = new %s();\n", linePrefix, targetClassName, referenceName, targetClassName);
-    int maxLength = codeText.length();
+  private String buildSetterMethod(String linePrefix, String sourceArgsName, PsiClass targetClass, Set<String> commonPropertyNameSet, boolean html) {
+    String targetClassName = String.valueOf(targetClass.getName());
+    String referenceName = null == targetClass.getName() ? "target" : CommonUtil.lowerFirst(targetClassName);
 
-    PsiExpression[] expressions = methodCallExpression.getArgumentList().getExpressions();
-    String sourceArgsName = expressions[0].getText();
+    // 按模板的固定长度计算最长的一行, 不需要先生成每一行
+    int maxLength = linePrefix.length() + targetClassName.length() * 2 + referenceName.length() + 12;
+    int maxPropertyNameLength = 0;
+    for (String propertyName : commonPropertyNameSet) {
+      maxPropertyNameLength = Math.max(maxPropertyNameLength, propertyName.length());
+    }
+    if (!commonPropertyNameSet.isEmpty()) {
+      maxLength = Math.max(maxLength, linePrefix.length() + referenceName.length() + sourceArgsName.length() + maxPropertyNameLength * 2 + 13);
+    }
+    double fontSize = html ? BeanCopyHelper.getFontSize(maxLength) : 0;
 
-    Set<String> commonPropertyNameSet = BeanCopyHelper.findCommonPropertyNameSet(invoke);
-    List<String> lineList = new ArrayList<>();
+    StringBuilder builder = new StringBuilder((commonPropertyNameSet.size() + 1) * (maxLength + (html ? 80 : 1)));
+    TemplateRenderer.Part declaration = lineBuilder -> DECLARATION_TEMPLATE.renderTo(lineBuilder,
+        b -> b.append(linePrefix), b -> b.append(targetClassName), b -> b.append(referenceName), b -> b.append(targetClassName));
+    appendLine(builder, declaration, fontSize, html);
+    boolean first = true;
     for (String propertyName : commonPropertyNameSet) {
-      // 将属性名的首字母大写
-      String upperPropertyName = CommonUtil.upperFirst(propertyName);
-      String line = String.format("%s%s.set%s(%s.get%s());", linePrefix, referenceName, upperPropertyName, sourceArgsName, upperPropertyName);
-      lineList.add(line);
-      if (line.length() > maxLength) {
-        maxLength = line.length();
+      // 声明行自带换行, 只在setter之间换行
+      if (!first) {
+        builder.append('\n');
       }
+      TemplateRenderer.Part setter = lineBuilder -> SETTER_TEMPLATE.renderTo(lineBuilder,
+          b -> b.append(linePrefix), b -> b.append(referenceName), b -> appendUpperFirst(b, propertyName),
+          b -> b.append(sourceArgsName), b -> appendUpperFirst(b, propertyName));
+      appendLine(builder, setter, fontSize, html);
+      first = false;
     }
+    return builder.toString();
+  }
 
+  private static void appendLine(StringBuilder builder, TemplateRenderer.Part line, double fontSize, boolean html) {
     if (html) {
-      double fontSize = BeanCopyHelper.getFontSize(maxLength);
-      return buildPropertyHtmlPrefix(codeText, fontSize) +
-          lineList.stream()
-              .map(line -> buildPropertyHtmlPrefix(line, fontSize))
-              .collect(Collectors.joining("\n"));
+      HTML_LINE_TEMPLATE.renderTo(builder, b -> b.append(fontSize), line);
     } else {
-      return codeText + String.join("\n", lineList);
+      line.writeTo(builder);
     }
   }
 
-
-  private String buildPropertyHtmlPrefix(String line, double fontSize) {
-    return CommonUtil.format("<p style=\"font-family: Fira Code, monospace; font-size: {}px;\">{}</p>", fontSize, line);
+  /**
+   * 将属性名的首字母大写后写入
+   */
+  private static void appendUpperFirst(StringBuilder builder, String propertyName) {
+    if (propertyName.isEmpty()) {
+      return;
+    }
+    builder.append(Character.toUpperCase(propertyName.charAt(0))).append(propertyName, 1, propertyName.length());
   }
 
   @Override
   public boolean startInWriteAction() {
-    return true;
+    return false;
   }
 
   @Override
   public @NotNull IntentionPreviewInfo generatePreview(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
-    Result result = BeanCopyHelper.invoke(editor, file);
-    if (null == result) {
+    // 只计算一次复制结果, 与其他意图共享
+    BeanCopyPreviewModel previewModel = BeanCopyPreviewModel.of(editor, file);
+    if (null == previewModel || !previewModel.isSupported()) {
       return METHOD_NOT_SUPPORTED_HTML;
     }
-
-    int offset = editor.getCaretModel().getOffset();
-    PsiElement elementAtCaret = file.findElementAt(offset);
-    PsiMethodCallExpression methodCallExpression = PsiTreeUtil.getParentOfType(elementAtCaret, PsiMethodCallExpression.class);
-    if (null == methodCallExpression) {
+    PsiClass targetClass = previewModel.result().targetClass();
+    if (null == targetClass) {
       return IntentionPreviewInfo.EMPTY;
     }
 
-    Result invoke = BeanCopyHelper.invoke(methodCallExpression);
-    if (null == invoke) {
-      return IntentionPreviewInfo.EMPTY;
-    }
-
-
-    String commentWithIndent = buildSetterMethod("", methodCallExpression, invoke, true);
+    String commentWithIndent = buildSetterMethod("", previewModel.sourceArgumentText(), targetClass,
+        previewModel.commonPropertyNameSet(), true);
     return new Html(commentWithIndent);
   }
 
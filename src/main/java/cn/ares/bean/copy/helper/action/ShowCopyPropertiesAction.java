@@ -13,30 +13,24 @@ package cn.ares.bean.copy.helper.action;
 
 import cn.ares.bean.copy.helper.BeanCopyHelper;
 import cn.ares.bean.copy.helper.BeanCopyHelper.Result;
+import cn.ares.bean.copy.helper.action.BeanCopyIntentionRunner.DocumentEdit;
 import cn.ares.bean.copy.helper.util.LocaleSupport;
-import com.intellij.codeInsight.hint.HintManager;
+import cn.ares.bean.copy.helper.util.TemplateRenderer;
 import com.intellij.codeInsight.intention.IntentionAction;
 import com.intellij.codeInsight.intention.PriorityAction;
 import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo;
 import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo.Html;
 import com.intellij.codeInspection.util.IntentionFamilyName;
 import com.intellij.codeInspection.util.IntentionName;
-import com.intellij.navigation.NavigationItem;
-import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiDocumentManager;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiMethodCallExpression;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
-import java.util.Arrays;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 
 import static cn.ares.bean.copy.helper.BeanCopyHelper.BEAN_COPY_HELPER;
@@ -49,6 +43,14 @@ public class ShowCopyPropertiesAction implements IntentionAction, PriorityAction
 
   private static final String NO_COMMON_PROPERTIES_FOUND = LocaleSupport.formatMessage("common.properties.not.found");
 
+  /**
+   * 注释模板, 依次为缩进, 缩进, 来源, 属性行, 缩进, 目标, 缩进
+   */
+  private static final TemplateRenderer COMMENT_TEMPLATE = TemplateRenderer.compile("{}/*\n{}   {}:\n{}\n{}   {}\n{}*/\n");
+
+  private static final TemplateRenderer HTML_TEMPLATE = TemplateRenderer.compile(
+      "/*\n  {}:<br/>&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;\n{}\n  <br/>{}\n*/<br>&nbsp;</br>");
+
   @Override
   public @IntentionName @NotNull String getText() {
     return "BeanCopyHelper - Show copy properties";
@@ -67,88 +69,74 @@ public class ShowCopyPropertiesAction implements IntentionAction, PriorityAction
 
   @Override
   public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
-    // 实现添加注释的具体逻辑
-    WriteCommandAction.runWriteCommandAction(project, () -> {
-      Document document = editor.getDocument();
-      int offset = editor.getCaretModel().getOffset();
-      PsiElement elementAtCaret = file.findElementAt(offset);
-      PsiMethodCallExpression methodCallExpression = PsiTreeUtil.getParentOfType(elementAtCaret, PsiMethodCallExpression.class);
-
-      if (methodCallExpression != null) {
-        Result result = BeanCopyHelper.invoke(methodCallExpression);
-        if (null == result) {
-          return;
-        }
-
-        PsiClass sourceClass = result.sourceClass();
-        PsiClass targetClass = result.targetClass();
-        if (sourceClass == null || targetClass == null) {
-          return;
-        }
-
-        Set<String> commonPropertyNames = findCommonPropertyNames(sourceClass, targetClass, result);
-        if (commonPropertyNames.isEmpty()) {
-          HintManager.getInstance().showInformationHint(editor, NO_COMMON_PROPERTIES_FOUND);
-          return;
-        }
-
-        // 计算要插入注释的位置
-        int lineNum = document.getLineNumber(methodCallExpression.getTextRange().getStartOffset());
-        int lineStartOffset = document.getLineStartOffset(lineNum);
-        // 缩进的位置
-        String linePrefix = document.getText(
-            new TextRange(lineStartOffset, methodCallExpression.getTextRange().getStartOffset()));
-        String commentText;
-        // 共有属性超过四个使用块注释显示
-        String copyPropertiesFromMessage = LocaleSupport.formatMessage("copy.properties.from", sourceClass.getName());
-        String copyPropertiesToMessage = LocaleSupport.formatMessage("copy.properties.to", targetClass.getName());
-        commentText = commonPropertyNames.stream()
-            .map(propertyName -> linePrefix + "\t\t" + propertyName)
-            .collect(Collectors.joining(",\n",
-                String.format("""
-                      /*
-                      %s   %s:
-                      """, linePrefix, copyPropertiesFromMessage),
-                String.format("""
-                      
-                      %s   %s
-                      %s*/""", linePrefix, copyPropertiesToMessage, linePrefix)));
-        // 将注释与原代码的缩进对齐
-        String commentWithIndent = linePrefix + commentText + '\n';
-        document.insertString(lineStartOffset, commentWithIndent);
-        PsiDocumentManager.getInstance(project).commitDocument(document);
-      }
-    });
+    // 后台分析, 只有插入注释时进入写操作
+    BeanCopyIntentionRunner.run(project, editor, file, getText(), this::buildCopyPropertiesComment);
   }
 
-  private Set<String> findCommonPropertyNames(PsiClass sourceClass, PsiClass targetClass, Result result) {
-    Set<String> sourceClassFieldSet = Arrays.stream(sourceClass.getAllFields())
-        .map(NavigationItem::getName)
-        .collect(Collectors.toSet());
-    Set<String> targetClassFieldSet = Arrays.stream(targetClass.getAllFields())
-        .map(NavigationItem::getName)
-        .collect(Collectors.toSet());
-    return BeanCopyHelper.findCommonPropertyNameSet(sourceClassFieldSet, targetClassFieldSet, result.ignoredProperties());
-  }
+  private DocumentEdit buildCopyPropertiesComment(PsiMethodCallExpression methodCallExpression, Document document) {
+    Result result = BeanCopyHelper.invoke(methodCallExpression);
+    if (null == result) {
+      return null;
+    }
+
+    PsiClass sourceClass = result.sourceClass();
+    PsiClass targetClass = result.targetClass();
+    if (sourceClass == null || targetClass == null) {
+      return null;
+    }
+
+    Set<String> commonPropertyNames = BeanCopyHelper.findCommonPropertyNameSet(result);
+    if (commonPropertyNames.isEmpty()) {
+      return DocumentEdit.hint(NO_COMMON_PROPERTIES_FOUND);
+    }
 
+    // 计算要插入注释的位置
+    int lineNum = document.getLineNumber(methodCallExpression.getTextRange().getStartOffset());
+    int lineStartOffset = document.getLineStartOffset(lineNum);
+    // 缩进的位置
+    String linePrefix = document.getText(
+        new TextRange(lineStartOffset, methodCallExpression.getTextRange().getStartOffset()));
+    // 共有属性超过四个使用块注释显示
+    String copyPropertiesFromMessage = LocaleSupport.formatMessage("copy.properties.from", sourceClass.getName());
+    String copyPropertiesToMessage = LocaleSupport.formatMessage("copy.properties.to", targetClass.getName());
+    // 将注释与原代码的缩进对齐
+    String commentWithIndent = COMMENT_TEMPLATE.render(commonPropertyNames.size() * (linePrefix.length() + 24),
+        builder -> builder.append(linePrefix),
+        builder -> builder.append(linePrefix),
+        builder -> builder.append(copyPropertiesFromMessage),
+        builder -> {
+          boolean first = true;
+          for (String propertyName : commonPropertyNames) {
+            if (!first) {
+              builder.append(",\n");
+            }
+            builder.append(linePrefix).append("\t\t").append(propertyName);
+            first = false;
+          }
+        },
+        builder -> builder.append(linePrefix),
+        builder -> builder.append(copyPropertiesToMessage),
+        builder -> builder.append(linePrefix));
+    return DocumentEdit.insert(lineStartOffset, commentWithIndent);
+  }
 
   @Override
   public boolean startInWriteAction() {
-    return true;
+    return false;
   }
 
 
   @Override
   public @NotNull IntentionPreviewInfo generatePreview(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
-    Result result = BeanCopyHelper.invoke(editor, file);
-    if (null == result) {
+    BeanCopyPreviewModel previewModel = BeanCopyPreviewModel.of(editor, file);
+    if (null == previewModel || !previewModel.isSupported()) {
       return METHOD_NOT_SUPPORTED_HTML;
     }
 
+    Result result = previewModel.result();
     PsiClass sourceClass = result.sourceClass();
     PsiClass targetClass = result.targetClass();
-    String commentText;
-    Set<String> commonPropertyNameSet = BeanCopyHelper.findCommonPropertyNameSet(result);
+    Set<String> commonPropertyNameSet = previewModel.commonPropertyNameSet();
     if (commonPropertyNameSet.isEmpty()) {
       return new Html(NO_COMMON_PROPERTIES_FOUND);
     }
@@ -156,17 +144,21 @@ public class ShowCopyPropertiesAction implements IntentionAction, PriorityAction
     // 共有属性超过四个使用块注释显示
     String copyPropertiesFromMessage = LocaleSupport.formatMessage("copy.properties.from", sourceClass.getName());
     String copyPropertiesToMessage = LocaleSupport.formatMessage("copy.properties.to", targetClass.getName());
-    commentText = commonPropertyNameSet.stream()
-        .collect(Collectors.joining(",<br/>&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;",
-            String.format("""
-                  /*
-                    %s:<br/>&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;
-                  """, copyPropertiesFromMessage),
-            String.format("""
-                  
-                    <br/>%s
-                  */""", copyPropertiesToMessage)));
-    return new Html(commentText + "<br>&nbsp;</br>");
+    String commentText = HTML_TEMPLATE.render(commonPropertyNameSet.size() * 80,
+        builder -> builder.append(copyPropertiesFromMessage),
+        builder -> {
+          boolean first = true;
+          for (String propertyName : commonPropertyNameSet) {
+            if (!first) {
+              builder.append(",<br/>");
+              TemplateRenderer.appendPadding(builder, 8, true);
+            }
+            builder.append(propertyName);
+            first = false;
+          }
+        },
+        builder -> builder.append(copyPropertiesToMessage));
+    return new Html(commentText);
   }
 
   @Override
@@ -13,37 +13,36 @@ package cn.ares.bean.copy.helper.action;
 
 import cn.ares.bean.copy.helper.BeanCopyHelper;
 import cn.ares.bean.copy.helper.BeanCopyHelper.Result;
+import cn.ares.bean.copy.helper.action.BeanCopyIntentionRunner.DocumentEdit;
+import cn.ares.bean.copy.helper.constant.Mark;
 import cn.ares.bean.copy.helper.model.Property;
-import cn.ares.bean.copy.helper.resolve.BeanCopyResolve;
-import cn.ares.bean.copy.helper.util.CommonUtil;
+import cn.ares.bean.copy.helper.model.PropertyMatching;
 import cn.ares.bean.copy.helper.util.LocaleSupport;
+import cn.ares.bean.copy.helper.util.TemplateRenderer;
 import com.intellij.codeInsight.intention.IntentionAction;
 import com.intellij.codeInsight.intention.PriorityAction;
 import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo;
 import com.intellij.codeInsight.intention.preview.IntentionPreviewInfo.Html;
 import com.intellij.codeInspection.util.IntentionFamilyName;
 import com.intellij.codeInspection.util.IntentionName;
-import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiDocumentManager;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiMethodCallExpression;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 
 import static cn.ares.bean.copy.helper.BeanCopyHelper.BEAN_COPY_HELPER;
 import static cn.ares.bean.copy.helper.BeanCopyHelper.METHOD_NOT_SUPPORTED_HTML;
+import static cn.ares.bean.copy.helper.constant.Mark.DIFF;
+import static cn.ares.bean.copy.helper.constant.Mark.IGNORED;
 import static cn.ares.bean.copy.helper.constant.Mark.TYPE_NOT_MATCH;
+import static cn.ares.bean.copy.helper.model.PropertyMatching.NO_COUNTERPART;
 
 /**
  * @author Aresxue
@@ -52,6 +51,24 @@ public class ShowPropertiesCompareAction implements IntentionAction, PriorityAct
 
   private static final String DIFF_COMPARE_MESSAGE = LocaleSupport.formatMessage("diff.compare");
 
+  /**
+   * 注释模板, 属性行由调用方逐行写入, 每行带有缩进
+   */
+  private static final TemplateRenderer COMMENT_TEMPLATE = TemplateRenderer.compile("{}/*\n{}\n{}\n{}{}*/\n");
+
+  private static final TemplateRenderer HTML_TEMPLATE = TemplateRenderer.compile("""
+      <html lang="zh-CN">
+      <body>
+      <div>
+        <p{}>{}</p>
+        <br>
+        {}
+        <br/>
+      </div>
+      </body>
+      </html>
+      """);
+
   @Override
   public @IntentionName @NotNull String getText() {
     return "BeanCopyHelper - Show properties compare";
@@ -69,162 +86,96 @@ public class ShowPropertiesCompareAction implements IntentionAction, PriorityAct
 
   @Override
   public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
-    // 实现添加注释的具体逻辑
-    WriteCommandAction.runWriteCommandAction(project, () -> {
-      Document document = editor.getDocument();
-      int offset = editor.getCaretModel().getOffset();
-      PsiElement elementAtCaret = file.findElementAt(offset);
-      PsiMethodCallExpression methodCallExpression = PsiTreeUtil.getParentOfType(elementAtCaret, PsiMethodCallExpression.class);
-      if (null == methodCallExpression) {
-        return;
-      }
-
-      // 计算要插入注释的位置
-      int lineNum = document.getLineNumber(methodCallExpression.getTextRange().getStartOffset());
-      int lineStartOffset = document.getLineStartOffset(lineNum);
-      // 缩进的位置
-      String linePrefix = document.getText(new TextRange(lineStartOffset, methodCallExpression.getTextRange().getStartOffset()));
-
-      Result result = BeanCopyHelper.invoke(editor, file);
-      if (null == result) {
-        return;
-      }
+    // 后台分析, 只有插入注释时进入写操作
+    BeanCopyIntentionRunner.run(project, editor, file, getText(), this::buildCompareComment);
+  }
 
-      PsiClass sourceClass = result.sourceClass();
-      PsiClass targetClass = result.targetClass();
-      if (sourceClass == null || targetClass == null) {
-        return;
-      }
+  private DocumentEdit buildCompareComment(PsiMethodCallExpression methodCallExpression, Document document) {
+    // 计算要插入注释的位置
+    int lineNum = document.getLineNumber(methodCallExpression.getTextRange().getStartOffset());
+    int lineStartOffset = document.getLineStartOffset(lineNum);
+    // 缩进的位置
+    String linePrefix = document.getText(new TextRange(lineStartOffset, methodCallExpression.getTextRange().getStartOffset()));
 
-      List<Property> sameProperties = new ArrayList<>();
-      List<Property> typeNotMatchProperties = new ArrayList<>();
-      List<Property> ignoredProperties =  new ArrayList<>();
-      List<Property> diffProperties = new ArrayList<>();
+    Result result = BeanCopyHelper.invoke(methodCallExpression);
+    if (null == result) {
+      return null;
+    }
 
-      Map<String, Property> sourcePropertyMap = result.sourcePropertyMap();
-      Map<String, Property> targetPropertyMap = result.targetPropertyMap();
-      Map<String, Property> lowerCaseSourcePropertyMap = result.lowerCaseSourcePropertyMap();
-      Map<String, Property> lowerCaseTargetPropertyMap = result.lowerCaseTargetPropertyMap();
+    PsiClass sourceClass = result.sourceClass();
+    PsiClass targetClass = result.targetClass();
+    if (sourceClass == null || targetClass == null) {
+      return null;
+    }
 
-      int sourcePropertyMaxLength = -1;
-      for (Property sourceProperty : sourcePropertyMap.values()) {
-        sourcePropertyMaxLength = getSourcePropertyMaxLength(sourceProperty, targetPropertyMap, lowerCaseTargetPropertyMap, sourcePropertyMaxLength);
-        switch (sourceProperty.getMark()) {
-          case SAME -> sameProperties.add(sourceProperty);
-          case TYPE_NOT_MATCH -> typeNotMatchProperties.add(sourceProperty);
-          case IGNORED -> ignoredProperties.add(sourceProperty);
-          case DIFF -> diffProperties.add(sourceProperty);
-        }
-      }
-      for (Property targetProperty : targetPropertyMap.values()) {
-        switch (targetProperty.getMark()) {
-          case IGNORED -> {
-            if (ignoredProperties.stream().noneMatch(property -> property.getName().equals(targetProperty.getName()))) {
-              ignoredProperties.add(targetProperty);
-            }
+    Comparison comparison = Comparison.of(result);
+    int paddingLength = comparison.paddingLength();
+    // 每行都带有缩进, 空的分组不输出
+    String commentWithIndent = COMMENT_TEMPLATE.render(comparison.size() * (linePrefix.length() + paddingLength * 2 + 8),
+        builder -> builder.append(linePrefix),
+        builder -> builder.append(linePrefix).append(DIFF_COMPARE_MESSAGE),
+        builder -> builder.append(linePrefix).append(sourceClass.getName()).append(" ➡️ ").append(targetClass.getName()),
+        builder -> {
+          for (Row row : comparison.sameRows()) {
+            builder.append(linePrefix);
+            TemplateRenderer.appendRightPad(builder, row.source().toString(), paddingLength, false)
+                .append(row.mark().getIcon()).append(row.target()).append('\n');
           }
-          case DIFF -> diffProperties.add(targetProperty);
-        }
-      }
-
-      int paddingLength = sourcePropertyMaxLength;
-
-      String sourceClassName = sourceClass.getName();
-      String targetClassName = targetClass.getName();
-      // 同属性
-      String commonPropertiesComment = sameProperties.stream()
-          .map(property -> {
-            Property targetProperty = BeanCopyResolve.getProperty(targetPropertyMap, lowerCaseTargetPropertyMap, property.getName());
-            return CommonUtil.rightPad(property.toString(), paddingLength, false) + property.getMark().getIcon() + targetProperty;
-          })
-          .collect(Collectors.joining("\n"));
-      // 同属性不同类型
-      String typeNotMatchPropertiesHtml = typeNotMatchProperties.stream()
-          .map(property -> {
-            Property targetProperty = BeanCopyResolve.getProperty(targetPropertyMap, lowerCaseTargetPropertyMap, property.getName());
+          // 同属性不同类型
+          for (Row row : comparison.typeNotMatchRows()) {
+            builder.append(linePrefix);
             // 类名相同,类路径不同
-            if (property.getShortType().equals(targetProperty.getShortType())) {
-              return CommonUtil.rightPad(property.toFullString(), paddingLength, false)
-                  + property.getMark().getIcon()
-                  + property.toFullString();
+            if (row.isSameShortType()) {
+              TemplateRenderer.appendRightPad(builder, row.source().toFullString(), paddingLength, false)
+                  .append(row.mark().getIcon()).append(row.target().toFullString());
+            } else {
+              TemplateRenderer.appendRightPad(builder, row.source().toString(), paddingLength, false)
+                  .append(row.mark().getIcon()).append(row.target());
             }
-            return CommonUtil.rightPad(property.toString(), paddingLength, false)
-                + property.getMark().getIcon()
-                + targetProperty;
-          })
-          .collect(Collectors.joining("\n"));
-      // 忽略的属性
-      String ignoredPropertiesComment = ignoredProperties.stream()
-          .map(property -> {
-            String propertyName = property.getName();
-            StringBuilder htmlBuilder = new StringBuilder();
-            Property sourceProperty = BeanCopyResolve.getProperty(sourcePropertyMap, lowerCaseSourcePropertyMap, propertyName);
-            if (null == sourceProperty) {
-              htmlBuilder.append(" ".repeat(paddingLength));
+            builder.append('\n');
+          }
+          // 忽略的属性
+          for (Row row : comparison.ignoredRows()) {
+            builder.append(linePrefix);
+            if (null == row.source()) {
+              TemplateRenderer.appendPadding(builder, paddingLength, false);
             } else {
-              htmlBuilder.append("~").append(CommonUtil.rightPad(sourceProperty.toString(), paddingLength, false)).append("~");
+              builder.append('~');
+              TemplateRenderer.appendRightPad(builder, row.source().toString(), paddingLength, false).append('~');
             }
-            htmlBuilder.append(property.getMark().getIcon());
-            Property targetProperty = BeanCopyResolve.getProperty(targetPropertyMap, lowerCaseTargetPropertyMap, propertyName);
-            if (null != targetProperty) {
-              htmlBuilder.append("~").append(targetProperty).append("~");
+            builder.append(row.mark().getIcon());
+            if (null != row.target()) {
+              builder.append('~').append(row.target()).append('~');
             }
-            return htmlBuilder.toString();
-          })
-          .collect(Collectors.joining("\n"));
-      // 不同的属性
-      String diffPropertiesComment = diffProperties.stream()
-          .map(property -> {
-            String propertyName = property.getName();
-            StringBuilder htmlBuilder = new StringBuilder();
-            Property sourceProperty = BeanCopyResolve.getProperty(sourcePropertyMap, lowerCaseSourcePropertyMap, propertyName);
-            if (null == sourceProperty) {
-              htmlBuilder.append(" ".repeat(paddingLength));
+            builder.append('\n');
+          }
+          // 不同的属性
+          for (Row row : comparison.diffRows()) {
+            builder.append(linePrefix);
+            if (null == row.source()) {
+              TemplateRenderer.appendPadding(builder, paddingLength, false);
             } else {
-              htmlBuilder.append(CommonUtil.rightPad(sourceProperty.toString(), paddingLength, false));
+              TemplateRenderer.appendRightPad(builder, row.source().toString(), paddingLength, false);
             }
-            htmlBuilder.append(property.getMark().getIcon());
-            Property targetProperty = BeanCopyResolve.getProperty(targetPropertyMap, lowerCaseTargetPropertyMap, propertyName);
-            if (null != targetProperty) {
-              htmlBuilder.append(targetProperty);
+            builder.append(row.mark().getIcon());
+            if (null != row.target()) {
+              builder.append(row.target());
             }
-            return htmlBuilder.toString();
-          })
-          .collect(Collectors.joining("\n"));
-      String comment = CommonUtil.format("""
-                    /*
-                    {}
-                    {} ➡️ {}
-                    {}
-                    {}
-                    {}
-                    {}
-                    */
-                    """,
-          DIFF_COMPARE_MESSAGE,
-          sourceClassName,
-          targetClassName,
-          commonPropertiesComment,
-          typeNotMatchPropertiesHtml,
-          ignoredPropertiesComment,
-          diffPropertiesComment);
-      // 将注释与原代码的缩进对齐
-      String commentWithIndent = comment.lines()
-          .filter(CommonUtil::isNotBlank)
-          .map(commentLine -> linePrefix + commentLine)
-          .collect(Collectors.joining("\n")) + "\n";
-      document.insertString(lineStartOffset, commentWithIndent);
-      PsiDocumentManager.getInstance(project).commitDocument(document);
-    });
+            builder.append('\n');
+          }
+        },
+        builder -> builder.append(linePrefix));
+    return DocumentEdit.insert(lineStartOffset, commentWithIndent);
   }
 
 
   @Override
   public @NotNull IntentionPreviewInfo generatePreview(@NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
-    Result result = BeanCopyHelper.invoke(editor, file);
-    if (null == result) {
+    BeanCopyPreviewModel previewModel = BeanCopyPreviewModel.of(editor, file);
+    if (null == previewModel || !previewModel.isSupported()) {
       return METHOD_NOT_SUPPORTED_HTML;
     }
+    Result result = previewModel.result();
 
     PsiClass sourceClass = result.sourceClass();
     PsiClass targetClass = result.targetClass();
@@ -233,178 +184,164 @@ public class ShowPropertiesCompareAction implements IntentionAction, PriorityAct
       return IntentionPreviewInfo.EMPTY;
     }
 
-    List<Property> sameProperties = new ArrayList<>();
-    List<Property> typeNotMatchProperties = new ArrayList<>();
-    List<Property> ignoredProperties =  new ArrayList<>();
-    List<Property> diffProperties = new ArrayList<>();
-
-    Map<String, Property> sourcePropertyMap = result.sourcePropertyMap();
-    Map<String, Property> targetPropertyMap = result.targetPropertyMap();
-    Map<String, Property> lowerCaseSourcePropertyMap = result.lowerCaseSourcePropertyMap();
-    Map<String, Property> lowerCaseTargetPropertyMap = result.lowerCaseTargetPropertyMap();
-
-    int sourcePropertyMaxLength = -1;
-    for (Property sourceProperty : sourcePropertyMap.values()) {
-      sourcePropertyMaxLength = getSourcePropertyMaxLength(sourceProperty, targetPropertyMap, lowerCaseTargetPropertyMap, sourcePropertyMaxLength);
-      switch (sourceProperty.getMark()) {
-        case SAME -> sameProperties.add(sourceProperty);
-        case TYPE_NOT_MATCH -> typeNotMatchProperties.add(sourceProperty);
-        case IGNORED -> ignoredProperties.add(sourceProperty);
-        case DIFF -> diffProperties.add(sourceProperty);
-      }
-    }
-
-    int targetPropertyMaxLength = -1;
-    for (Property targetProperty : targetPropertyMap.values()) {
-      if (targetProperty.toString().length() > targetPropertyMaxLength) {
-        targetPropertyMaxLength = targetProperty.toString().length();
-      }
-      switch (targetProperty.getMark()) {
-        case IGNORED -> {
-          if (ignoredProperties.stream().noneMatch(property -> property.getName().equals(targetProperty.getName()))) {
-            ignoredProperties.add(targetProperty);
-          }
-        }
-        case DIFF -> diffProperties.add(targetProperty);
-      }
-    }
-
-    int paddingLength = sourcePropertyMaxLength;
+    Comparison comparison = Comparison.of(result);
+    int paddingLength = comparison.paddingLength();
     // 3是图标的宽度
-    int maxLength = sourcePropertyMaxLength + targetPropertyMaxLength + 3;
+    int maxLength = paddingLength + comparison.targetMaxLength() + 3;
     // 获取合适的字体大小
     double fontSize = BeanCopyHelper.getFontSize(maxLength);
 
     String sourceClassName = sourceClass.getName();
     String targetClassName = targetClass.getName();
-    // 同属性
-    String samePropertiesHtml = sameProperties.stream()
-        .map(property -> buildPropertyHtmlPrefix(property, fontSize) +
-            CommonUtil.rightPad(property.toString(), paddingLength, true) +
-            property.getMark().getIcon() +
-            CommonUtil.quote(BeanCopyResolve.getProperty(targetPropertyMap, lowerCaseTargetPropertyMap, property.getName()).toString()) +
-            "</p>")
-        .collect(Collectors.joining("\n"));
-    // 同属性不同类型
-    String typeNotMatchPropertiesHtml = typeNotMatchProperties.stream()
-        .map(property -> {
-          String propertyName = property.getName();
-          Property targerProperty = BeanCopyResolve.getProperty(targetPropertyMap, lowerCaseTargetPropertyMap, propertyName);
-          // 类名相同,类路径不同
-          if (property.getShortType().equals(targerProperty.getShortType())) {
-            return buildPropertyHtmlPrefix(property, fontSize) +
-                CommonUtil.quote(CommonUtil.rightPad(property.toFullString(), paddingLength)) +
-                property.getMark().getIcon() +
-                CommonUtil.quote(property.toFullString()) +
-                "</p>";
+    String title = sourceClassName + " ➡️ " + targetClassName;
+    // 每行包含样式和填充, 按填充后的长度预估
+    String html = HTML_TEMPLATE.render(comparison.size() * (paddingLength * 7 + 160),
+        builder -> {
+          if (title.length() > 40) {
+            builder.append(" style=\"font-size: ").append(BeanCopyHelper.getFontSize(title.length())).append("px;\"");
           }
-          return buildPropertyHtmlPrefix(property, fontSize) +
-              CommonUtil.rightPad(property.toString(), paddingLength, true) +
-              property.getMark().getIcon() +
-              CommonUtil.quote(targerProperty.toString()) +
-              "</p>";
-        })
-        .collect(Collectors.joining("\n"));
-    // 忽略的属性
-    String ignoredPropertiesHtml = ignoredProperties.stream()
-        .map(property -> {
-          String propertyName = property.getName();
-          Property sourceProperty = BeanCopyResolve.getProperty(sourcePropertyMap, lowerCaseSourcePropertyMap, propertyName);
-          StringBuilder htmlBuilder = new StringBuilder(buildPropertyHtmlPrefix(property, fontSize));
-          if (null == sourceProperty) {
-            htmlBuilder.append("&nbsp;".repeat(paddingLength));
-          } else {
-            htmlBuilder.append("<s>").append(CommonUtil.rightPad(property.toString(), paddingLength, true)).append("</s>");
+        },
+        builder -> builder.append(title),
+        builder -> {
+          // 同属性
+          for (Row row : comparison.sameRows()) {
+            appendPropertyHtmlPrefix(builder, row.mark(), fontSize);
+            TemplateRenderer.appendRightPad(builder, row.source().toString(), paddingLength, true).append(row.mark().getIcon());
+            TemplateRenderer.appendEscaped(builder, row.target().toString()).append("</p>\n");
           }
-          htmlBuilder.append(property.getMark().getIcon());
-          Property targetProperty = BeanCopyResolve.getProperty(targetPropertyMap, lowerCaseTargetPropertyMap, propertyName);
-          if (null != targetProperty) {
-            htmlBuilder.append("<s>").append(CommonUtil.quote(targetProperty.toString())).append("</s>");
+          // 同属性不同类型
+          for (Row row : comparison.typeNotMatchRows()) {
+            appendPropertyHtmlPrefix(builder, row.mark(), fontSize);
+            // 类名相同,类路径不同
+            if (row.isSameShortType()) {
+              TemplateRenderer.appendRightPad(builder, row.source().toFullString(), paddingLength, true).append(row.mark().getIcon());
+              TemplateRenderer.appendEscaped(builder, row.target().toFullString());
+            } else {
+              TemplateRenderer.appendRightPad(builder, row.source().toString(), paddingLength, true).append(row.mark().getIcon());
+              TemplateRenderer.appendEscaped(builder, row.target().toString());
+            }
+            builder.append("</p>\n");
           }
-          htmlBuilder.append("</p>");
-          return htmlBuilder.toString();
-        })
-        .collect(Collectors.joining("\n"));
-    // 不同的属性
-    String diffPropertiesHtml = diffProperties.stream()
-        .map(property -> {
-          String propertyName = property.getName();
-          StringBuilder htmlBuilder = new StringBuilder(buildPropertyHtmlPrefix(property, fontSize));
-          Property sourceProperty = BeanCopyResolve.getProperty(sourcePropertyMap, lowerCaseSourcePropertyMap, propertyName);
-          if (null == sourceProperty) {
-            htmlBuilder.append("&nbsp;".repeat(paddingLength));
-          } else {
-            htmlBuilder.append(CommonUtil.rightPad(property.toString(), paddingLength, true));
+          // 忽略的属性
+          for (Row row : comparison.ignoredRows()) {
+            appendPropertyHtmlPrefix(builder, row.mark(), fontSize);
+            if (null == row.source()) {
+              TemplateRenderer.appendPadding(builder, paddingLength, true);
+            } else {
+              builder.append("<s>");
+              TemplateRenderer.appendRightPad(builder, row.source().toString(), paddingLength, true).append("</s>");
+            }
+            builder.append(row.mark().getIcon());
+            if (null != row.target()) {
+              builder.append("<s>");
+              TemplateRenderer.appendEscaped(builder, row.target().toString()).append("</s>");
+            }
+            builder.append("</p>\n");
           }
-          htmlBuilder.append(property.getMark().getIcon());
-          Property targetProperty = BeanCopyResolve.getProperty(targetPropertyMap, lowerCaseTargetPropertyMap, propertyName);
-          if (null != targetProperty) {
-            htmlBuilder.append(CommonUtil.quote(targetProperty.toString()));
+          // 不同的属性
+          for (Row row : comparison.diffRows()) {
+            appendPropertyHtmlPrefix(builder, row.mark(), fontSize);
+            if (null == row.source()) {
+              TemplateRenderer.appendPadding(builder, paddingLength, true);
+            } else {
+              TemplateRenderer.appendRightPad(builder, row.source().toString(), paddingLength, true);
+            }
+            builder.append(row.mark().getIcon());
+            if (null != row.target()) {
+              TemplateRenderer.appendEscaped(builder, row.target().toString());
+            }
+            builder.append("</p>\n");
           }
-          htmlBuilder.append("</p>");
-          return htmlBuilder.toString();
-        })
-        .collect(Collectors.joining("\n"));
-    String title = sourceClassName + " ➡️ " + targetClassName;
-    String titleStyle;
-    if (title.length() > 40) {
-      titleStyle = CommonUtil.format(" style=\"font-size: {}px;\"", BeanCopyHelper.getFontSize(title.length()));
-    } else {
-      titleStyle = "";
-    }
-    String html = CommonUtil.format("""
-                <html lang="zh-CN">
-                <body>
-                <div>
-                  <p{}>{}</p>
-                  <br>
-                  {}
-                  {}
-                  {}
-                  {}
-                  <br/>
-                </div>
-                </body>
-                </html>
-                """,
-            titleStyle,
-            title,
-            samePropertiesHtml,
-            typeNotMatchPropertiesHtml,
-            ignoredPropertiesHtml,
-            diffPropertiesHtml);
+        });
     return new Html(html);
   }
 
-  private int getSourcePropertyMaxLength(Property sourceProperty, Map<String, Property> targetPropertyMap, Map<String, Property> lowerCaseTargetPropertyMap, int sourcePropertyMaxLength) {
-    if (TYPE_NOT_MATCH.equals(sourceProperty.getMark())) {
-      Property targerProperty = BeanCopyResolve.getProperty(targetPropertyMap,
-          lowerCaseTargetPropertyMap, sourceProperty.getName());
-      if (sourceProperty.getShortType().equals(targerProperty.getShortType())) {
-        if (sourceProperty.toFullString().length() > sourcePropertyMaxLength) {
-          sourcePropertyMaxLength = sourceProperty.toFullString().length();
+  private static void appendPropertyHtmlPrefix(StringBuilder builder, Mark mark, double fontSize) {
+    builder.append("<p style=\"color: ").append(mark.getColor())
+        .append("; font-family: Fira Code, monospace; font-size: ").append(fontSize).append("px;\">");
+  }
+
+  /**
+   * 一行对比, 源属性和目标属性由匹配结果中的对应下标确定, 与标记一致
+   *
+   * @param mark 行的标记, 只存在于目标类时为目标属性的标记
+   * @param source 源属性, 只存在于目标类时为null
+   * @param target 目标属性, 只存在于源类时为null
+   */
+  private record Row(Mark mark, Property source, Property target) {
+
+    boolean isSameShortType() {
+      return source.getShortType().equals(target.getShortType());
+    }
+
+  }
+
+  /**
+   * 按标记分组的行, 注释和预览共用
+   *
+   * @param paddingLength 源属性的最大显示长度
+   * @param targetMaxLength 目标属性的最大显示长度
+   */
+  private record Comparison(List<Row> sameRows, List<Row> typeNotMatchRows, List<Row> ignoredRows, List<Row> diffRows,
+                            int paddingLength, int targetMaxLength) {
+
+    /**
+     * 按源属性的顺序, 再追加只存在于目标类的忽略属性和不同属性
+     */
+    static Comparison of(Result result) {
+      PropertyMatching matching = result.matching();
+      List<Row> sameRows = new ArrayList<>();
+      List<Row> typeNotMatchRows = new ArrayList<>();
+      List<Row> ignoredRows = new ArrayList<>();
+      List<Row> diffRows = new ArrayList<>();
+
+      int sourcePropertyMaxLength = -1;
+      int targetPropertyMaxLength = -1;
+      for (int i = 0; i < matching.sourceSize(); i++) {
+        Property sourceProperty = matching.sourceProperty(i);
+        Row row = new Row(sourceProperty.getMark(), sourceProperty, matching.targetCounterpart(i));
+        // 类名相同时源属性和目标属性都显示全限类名
+        if (TYPE_NOT_MATCH == row.mark() && row.isSameShortType()) {
+          sourcePropertyMaxLength = Math.max(sourcePropertyMaxLength, sourceProperty.toFullString().length());
+          targetPropertyMaxLength = Math.max(targetPropertyMaxLength, row.target().toFullString().length());
+        } else {
+          sourcePropertyMaxLength = Math.max(sourcePropertyMaxLength, sourceProperty.toString().length());
         }
-      } else {
-        if (sourceProperty.toString().length() > sourcePropertyMaxLength) {
-          sourcePropertyMaxLength = sourceProperty.toString().length();
+        switch (row.mark()) {
+          case SAME -> sameRows.add(row);
+          case TYPE_NOT_MATCH -> typeNotMatchRows.add(row);
+          case IGNORED -> ignoredRows.add(row);
+          case DIFF -> diffRows.add(row);
         }
       }
-    } else {
-      if (sourceProperty.toString().length() > sourcePropertyMaxLength) {
-        sourcePropertyMaxLength = sourceProperty.toString().length();
+
+      for (int j = 0; j < matching.targetSize(); j++) {
+        Property targetProperty = matching.targetProperty(j);
+        targetPropertyMaxLength = Math.max(targetPropertyMaxLength, targetProperty.toString().length());
+        switch (targetProperty.getMark()) {
+          case IGNORED -> {
+            // 对应的忽略源属性已经输出了这一对时不再重复输出
+            int sourceIndex = matching.sourceIndexOf(j);
+            if (NO_COUNTERPART == sourceIndex || IGNORED != matching.sourceProperty(sourceIndex).getMark()
+                || j != matching.targetIndexOf(sourceIndex)) {
+              ignoredRows.add(new Row(IGNORED, null, targetProperty));
+            }
+          }
+          case DIFF -> diffRows.add(new Row(DIFF, null, targetProperty));
+        }
       }
+      return new Comparison(sameRows, typeNotMatchRows, ignoredRows, diffRows, sourcePropertyMaxLength, targetPropertyMaxLength);
+    }
+
+    int size() {
+      return sameRows.size() + typeNotMatchRows.size() + ignoredRows.size() + diffRows.size();
     }
-    return sourcePropertyMaxLength;
-  }
 
-  private String buildPropertyHtmlPrefix(Property property, double fontSize) {
-    return CommonUtil.format("<p style=\"color: {}; font-family: Fira Code, monospace; font-size: {}px;\">",
-        property.getMark().getColor(), fontSize);
   }
 
   @Override
   public boolean startInWriteAction() {
-    return true;
+    return false;
   }
 
   @Override
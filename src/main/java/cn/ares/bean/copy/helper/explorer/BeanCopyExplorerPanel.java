@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.explorer;
+
+import cn.ares.bean.copy.helper.BeanCopyHelper;
+import cn.ares.bean.copy.helper.BeanCopyHelper.Result;
+import cn.ares.bean.copy.helper.constant.Mark;
+import cn.ares.bean.copy.helper.explorer.BeanCopyExplorerTableModel.Rows;
+import cn.ares.bean.copy.helper.model.Property;
+import cn.ares.bean.copy.helper.util.LocaleSupport;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.ui.ColoredTableCellRenderer;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.SearchTextField;
+import com.intellij.ui.SimpleListCellRenderer;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.Alarm;
+import com.intellij.util.ui.JBUI;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.util.Comparator;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JPanel;
+import javax.swing.JTable;
+import javax.swing.RowFilter;
+import javax.swing.event.DocumentEvent;
+import javax.swing.table.TableRowSorter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-08-04 10:58:12
+ * @description: Bean Copy Explorer的面板, 在后台计算属性对比后一次性交给表格, 表格只渲染可见的行, 支持按标记过滤、按属性名搜索和排序
+ * @description: Panel of the Bean Copy Explorer, the comparison is computed in the background and handed to the table at once, the table only renders visible rows and supports filtering by mark, searching by property name and sorting
+ * @version: JDK 21
+ */
+final class BeanCopyExplorerPanel extends SimpleToolWindowPanel implements Disposable {
+
+  private static final String LOAD_TASK_TITLE = LocaleSupport.formatMessage("explorer.task.title");
+
+  /**
+   * 搜索输入停顿后再过滤, 避免大表格在每次按键时重新过滤
+   */
+  private static final int FILTER_DELAY_MILLIS = 150;
+
+  private static final Comparator<Property> PROPERTY_COMPARATOR = Comparator.comparing(Property::getName, String.CASE_INSENSITIVE_ORDER)
+      .thenComparing(Property::getName);
+
+  private final Project project;
+  private final BeanCopyExplorerTableModel tableModel = new BeanCopyExplorerTableModel();
+  private final JBTable table = new JBTable(tableModel);
+  private final TableRowSorter<BeanCopyExplorerTableModel> rowSorter = new TableRowSorter<>(tableModel);
+  private final SearchTextField searchField = new SearchTextField(false);
+  private final ComboBox<Mark> markComboBox = new ComboBox<>(new DefaultComboBoxModel<>(new Mark[]{null, Mark.SAME, Mark.TYPE_NOT_MATCH, Mark.IGNORED, Mark.DIFF}));
+  private final JBLabel statusLabel = new JBLabel();
+  /**
+   * 以面板为父Disposable, 待执行的过滤请求随面板一起取消
+   */
+  private final Alarm filterAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+
+  /**
+   * 当前的类名对比, 如UserDTO -> UserVO
+   */
+  private String title = "";
+
+  /**
+   * 只接受最后一次加载的结果, 仅在EDT上访问
+   */
+  private int loadCount;
+
+  /**
+   * 后台计算的结果
+   */
+  private record Loaded(Rows rows, String title) {
+
+  }
+
+  BeanCopyExplorerPanel(Project project) {
+    super(true, true);
+    this.project = project;
+
+    rowSorter.setComparator(BeanCopyExplorerTableModel.SOURCE_COLUMN, PROPERTY_COMPARATOR);
+    rowSorter.setComparator(BeanCopyExplorerTableModel.TARGET_COLUMN, PROPERTY_COMPARATOR);
+    table.setRowSorter(rowSorter);
+    table.setDefaultRenderer(Mark.class, new MarkRenderer());
+    table.setDefaultRenderer(Property.class, new PropertyRenderer());
+    table.getColumnModel().getColumn(BeanCopyExplorerTableModel.MARK_COLUMN).setMaxWidth(JBUI.scale(160));
+    table.getEmptyText().setText(LocaleSupport.formatMessage("explorer.empty"));
+
+    markComboBox.setRenderer(SimpleListCellRenderer.create(LocaleSupport.formatMessage("explorer.filter.all"),
+        mark -> mark.getIcon().strip() + " " + mark.name()));
+    markComboBox.addActionListener(event -> applyFilter());
+    searchField.addDocumentListener(new DocumentAdapter() {
+      @Override
+      protected void textChanged(@NotNull DocumentEvent event) {
+        filterAlarm.cancelAllRequests();
+        filterAlarm.addRequest(BeanCopyExplorerPanel.this::applyFilter, FILTER_DELAY_MILLIS);
+      }
+    });
+
+    JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.LEFT, JBUI.scale(8), JBUI.scale(2)));
+    toolbar.add(searchField);
+    toolbar.add(markComboBox);
+    toolbar.add(statusLabel);
+    JPanel header = new JPanel(new BorderLayout());
+    header.add(toolbar, BorderLayout.CENTER);
+    setToolbar(header);
+    setContent(ScrollPaneFactory.createScrollPane(table));
+  }
+
+  /**
+   * 在EDT上调用, 立即返回, 计算完成后替换表格中的内容
+   */
+  void load(SmartPsiElementPointer<PsiMethodCallExpression> pointer) {
+    int currentLoad = ++loadCount;
+    table.getEmptyText().setText(LOAD_TASK_TITLE);
+    new Task.Backgroundable(project, LOAD_TASK_TITLE, true) {
+
+      private Loaded loaded;
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        loaded = ReadAction.nonBlocking(() -> {
+              PsiMethodCallExpression methodCallExpression = pointer.getElement();
+              Result result = BeanCopyHelper.invoke(methodCallExpression);
+              if (null == result) {
+                return null;
+              }
+              return new Loaded(Rows.of(result), result.sourceClass().getName() + " -> " + result.targetClass().getName());
+            })
+            // 面板关闭时取消后台计算
+            .expireWith(BeanCopyExplorerPanel.this)
+            .wrapProgress(indicator)
+            .executeSynchronously();
+      }
+
+      @Override
+      public void onSuccess() {
+        // 期间又发起了新的加载
+        if (currentLoad != loadCount) {
+          return;
+        }
+        if (null == loaded) {
+          clear(LocaleSupport.formatMessage("method.not.supported"));
+        } else {
+          title = loaded.title();
+          tableModel.setRows(loaded.rows());
+          table.getEmptyText().setText(LocaleSupport.formatMessage("explorer.empty"));
+          updateStatus();
+        }
+      }
+
+      @Override
+      public void onCancel() {
+        // 不保留上一次的对比, 避免与取消的调用点混淆
+        if (currentLoad == loadCount) {
+          clear(LocaleSupport.formatMessage("explorer.empty"));
+        }
+      }
+    }.queue();
+  }
+
+  private void clear(String emptyText) {
+    title = "";
+    tableModel.setRows(Rows.EMPTY);
+    table.getEmptyText().setText(emptyText);
+    updateStatus();
+  }
+
+  private void applyFilter() {
+    Mark selectedMark = (Mark) markComboBox.getSelectedItem();
+    String searchText = searchField.getText().trim();
+    if (null == selectedMark && searchText.isEmpty()) {
+      rowSorter.setRowFilter(null);
+    } else {
+      rowSorter.setRowFilter(new RowFilter<>() {
+        @Override
+        public boolean include(Entry<? extends BeanCopyExplorerTableModel, ? extends Integer> entry) {
+          int row = entry.getIdentifier();
+          if (null != selectedMark && selectedMark != tableModel.getMark(row)) {
+            return false;
+          }
+          return searchText.isEmpty() || nameContains(tableModel.getSourceProperty(row), searchText)
+              || nameContains(tableModel.getTargetProperty(row), searchText);
+        }
+      });
+    }
+    updateStatus();
+  }
+
+  private static boolean nameContains(Property property, String searchText) {
+    return null != property && StringUtil.containsIgnoreCase(property.getName(), searchText);
+  }
+
+  private void updateStatus() {
+    if (title.isEmpty()) {
+      statusLabel.setText("");
+    } else {
+      statusLabel.setText(title + "  " + table.getRowCount() + "/" + tableModel.getRowCount());
+    }
+  }
+
+  @Override
+  public void dispose() {
+  }
+
+  private static final class MarkRenderer extends ColoredTableCellRenderer {
+
+    @Override
+    protected void customizeCellRenderer(@NotNull JTable table, Object value, boolean selected, boolean hasFocus, int row, int column) {
+      if (value instanceof Mark mark) {
+        append(mark.getIcon().strip() + " " + mark.name());
+      }
+    }
+
+  }
+
+  private static final class PropertyRenderer extends ColoredTableCellRenderer {
+
+    @Override
+    protected void customizeCellRenderer(@NotNull JTable table, Object value, boolean selected, boolean hasFocus, int row, int column) {
+      if (value instanceof Property property) {
+        append(property.getShortType() + " ", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+        append(property.getName());
+        setToolTipText(property.toFullString());
+      } else {
+        setToolTipText(null);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.explorer;
+
+import cn.ares.bean.copy.helper.BeanCopyHelper.Result;
+import cn.ares.bean.copy.helper.constant.Mark;
+import cn.ares.bean.copy.helper.model.Property;
+import cn.ares.bean.copy.helper.model.PropertyMatching;
+import cn.ares.bean.copy.helper.util.LocaleSupport;
+import javax.swing.table.AbstractTableModel;
+
+import static cn.ares.bean.copy.helper.model.PropertyMatching.NO_COUNTERPART;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-08-04 10:21:35
+ * @description: 属性对比表格的模型, 每行只保存源属性和目标属性在匹配结果中的下标, 单元格的值在渲染时才从匹配结果中读取
+ * @description: Table model of the property comparison, each row only keeps the source and target indexes into the matching, cell values are read from the matching when rendered
+ * @version: JDK 21
+ */
+final class BeanCopyExplorerTableModel extends AbstractTableModel {
+
+  static final int MARK_COLUMN = 0;
+  static final int SOURCE_COLUMN = 1;
+  static final int TARGET_COLUMN = 2;
+
+  private static final String[] COLUMN_NAMES = {
+      LocaleSupport.formatMessage("explorer.column.mark"),
+      LocaleSupport.formatMessage("explorer.column.source"),
+      LocaleSupport.formatMessage("explorer.column.target")
+  };
+
+  private Rows rows = Rows.EMPTY;
+
+  /**
+   * 在后台构建的行, 构建后不再修改
+   *
+   * @param sourceIndexes 每行的源属性下标, 只存在于目标类时为NO_COUNTERPART
+   * @param targetIndexes 每行的目标属性下标, 只存在于源类时为NO_COUNTERPART
+   */
+  record Rows(Result result, int[] sourceIndexes, int[] targetIndexes) {
+
+    static final Rows EMPTY = new Rows(null, new int[0], new int[0]);
+
+    /**
+     * 先按源属性的顺序, 再追加没有对应源属性的目标属性
+     */
+    static Rows of(Result result) {
+      PropertyMatching matching = result.matching();
+      int sourceSize = matching.sourceSize();
+      int targetSize = matching.targetSize();
+      int[] sourceIndexes = new int[sourceSize + targetSize];
+      int[] targetIndexes = new int[sourceSize + targetSize];
+      int size = 0;
+      for (int i = 0; i < sourceSize; i++) {
+        sourceIndexes[size] = i;
+        targetIndexes[size] = matching.targetIndexOf(i);
+        size++;
+      }
+      for (int j = 0; j < targetSize; j++) {
+        if (NO_COUNTERPART == matching.sourceIndexOf(j)) {
+          sourceIndexes[size] = NO_COUNTERPART;
+          targetIndexes[size] = j;
+          size++;
+        }
+      }
+      // 截断到实际行数, 同一组只有大小写不同的属性会共用目标属性
+      int[] trimmedSourceIndexes = new int[size];
+      int[] trimmedTargetIndexes = new int[size];
+      System.arraycopy(sourceIndexes, 0, trimmedSourceIndexes, 0, size);
+      System.arraycopy(targetIndexes, 0, trimmedTargetIndexes, 0, size);
+      return new Rows(result, trimmedSourceIndexes, trimmedTargetIndexes);
+    }
+
+    int size() {
+      return sourceIndexes.length;
+    }
+
+  }
+
+  /**
+   * 在EDT上调用
+   */
+  void setRows(Rows rows) {
+    this.rows = rows;
+    fireTableDataChanged();
+  }
+
+  Rows getRows() {
+    return rows;
+  }
+
+  @Override
+  public int getRowCount() {
+    return rows.size();
+  }
+
+  @Override
+  public int getColumnCount() {
+    return COLUMN_NAMES.length;
+  }
+
+  @Override
+  public String getColumnName(int column) {
+    return COLUMN_NAMES[column];
+  }
+
+  @Override
+  public Class<?> getColumnClass(int column) {
+    return MARK_COLUMN == column ? Mark.class : Property.class;
+  }
+
+  @Override
+  public Object getValueAt(int row, int column) {
+    return switch (column) {
+      case MARK_COLUMN -> getMark(row);
+      case SOURCE_COLUMN -> getSourceProperty(row);
+      case TARGET_COLUMN -> getTargetProperty(row);
+      default -> null;
+    };
+  }
+
+  /**
+   * 源属性的标记, 只存在于目标类时取目标属性的标记
+   */
+  Mark getMark(int row) {
+    Property sourceProperty = getSourceProperty(row);
+    return null == sourceProperty ? getTargetProperty(row).getMark() : sourceProperty.getMark();
+  }
+
+  Property getSourceProperty(int row) {
+    int sourceIndex = rows.sourceIndexes[row];
+    return NO_COUNTERPART == sourceIndex ? null : rows.result.matching().sourceProperty(sourceIndex);
+  }
+
+  Property getTargetProperty(int row) {
+    int targetIndex = rows.targetIndexes[row];
+    return NO_COUNTERPART == targetIndex ? null : rows.result.matching().targetProperty(targetIndex);
+  }
+
+}
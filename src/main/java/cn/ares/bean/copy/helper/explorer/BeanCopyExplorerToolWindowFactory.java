@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.explorer;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-08-04 11:36:47
+ * @description: Bean Copy Explorer工具窗口, 只有一个面板, 每次打开时替换其中的属性对比
+ * @description: Bean Copy Explorer tool window, holds a single panel whose comparison is replaced on every open
+ * @version: JDK 21
+ */
+public class BeanCopyExplorerToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+  public static final String TOOL_WINDOW_ID = "Bean Copy Explorer";
+
+  @Override
+  public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+    BeanCopyExplorerPanel panel = new BeanCopyExplorerPanel(project);
+    Content content = ContentFactory.getInstance().createContent(panel, null, false);
+    content.setDisposer(panel);
+    toolWindow.getContentManager().addContent(content);
+  }
+
+  /**
+   * 激活工具窗口并在后台加载调用点的属性对比, 在EDT上调用
+   */
+  public static void show(Project project, SmartPsiElementPointer<PsiMethodCallExpression> pointer) {
+    ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(TOOL_WINDOW_ID);
+    if (null == toolWindow) {
+      return;
+    }
+    // 首次激活时才创建面板
+    toolWindow.activate(() -> {
+      Content content = toolWindow.getContentManager().getContent(0);
+      if (null != content && content.getComponent() instanceof BeanCopyExplorerPanel panel) {
+        panel.load(pointer);
+      }
+    });
+  }
+
+}
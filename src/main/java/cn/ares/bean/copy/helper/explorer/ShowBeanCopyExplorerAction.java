@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.explorer;
+
+import cn.ares.bean.copy.helper.BeanCopyHelper;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-08-04 11:52:09
+ * @description: 在Bean Copy Explorer中打开光标所在的属性复制
+ * @description: Opens the bean copy at the caret in the Bean Copy Explorer
+ * @version: JDK 21
+ */
+public class ShowBeanCopyExplorerAction extends AnAction {
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent anActionEvent) {
+    Editor editor = anActionEvent.getData(CommonDataKeys.EDITOR);
+    PsiFile file = anActionEvent.getData(CommonDataKeys.PSI_FILE);
+    anActionEvent.getPresentation().setEnabledAndVisible(null != editor && null != file
+        && BeanCopyHelper.isBeanCopyHelperAvailable(editor, file));
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent anActionEvent) {
+    Project project = anActionEvent.getProject();
+    Editor editor = anActionEvent.getData(CommonDataKeys.EDITOR);
+    PsiFile file = anActionEvent.getData(CommonDataKeys.PSI_FILE);
+    if (null == project || null == editor || null == file) {
+      return;
+    }
+    // 只定位调用点, 属性对比在后台计算
+    PsiMethodCallExpression methodCallExpression = PsiTreeUtil.getParentOfType(file.findElementAt(editor.getCaretModel().getOffset()),
+        PsiMethodCallExpression.class);
+    if (null == methodCallExpression) {
+      return;
+    }
+    BeanCopyExplorerToolWindowFactory.show(project, SmartPointerManager.createPointer(methodCallExpression));
+  }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.index;
+
+import cn.ares.bean.copy.helper.BeanCopyHelper;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-15 10:21:37
+ * @description: 属性复制调用点的持久化索引, key为复制方法名, value为方法名标识符的偏移量
+ * @description: Persistent index of bean copy call sites, key is the copy method name, value is the offset of the method name identifier
+ * @version: JDK 21
+ */
+public class CopyPropertiesCallSiteIndex extends FileBasedIndexExtension<String, List<Integer>> {
+
+  public static final ID<String, List<Integer>> NAME = ID.create("cn.ares.bean.copy.helper.CopyPropertiesCallSiteIndex");
+
+  /**
+   * 索引内容变化时需要升级版本号, 扩展点注册的复制方法变化时由BeanCopyResolveRegistry请求重建索引
+   */
+  private static final int VERSION = 3;
+
+  private static final DataExternalizer<List<Integer>> OFFSET_LIST_EXTERNALIZER = new DataExternalizer<>() {
+    @Override
+    public void save(@NotNull DataOutput out, List<Integer> value) throws IOException {
+      DataInputOutputUtil.writeINT(out, value.size());
+      for (int offset : value) {
+        DataInputOutputUtil.writeINT(out, offset);
+      }
+    }
+
+    @Override
+    public List<Integer> read(@NotNull DataInput in) throws IOException {
+      int size = DataInputOutputUtil.readINT(in);
+      List<Integer> offsetList = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        offsetList.add(DataInputOutputUtil.readINT(in));
+      }
+      return offsetList;
+    }
+  };
+
+  @Override
+  public @NotNull ID<String, List<Integer>> getName() {
+    return NAME;
+  }
+
+  @Override
+  public @NotNull DataIndexer<String, List<Integer>, FileContent> getIndexer() {
+    return inputData -> {
+      // 绝大多数文件不包含属性复制调用, 先用文本做预过滤避免构建PSI
+      if (!mayContainCallSite(inputData.getContentAsText())) {
+        return Collections.emptyMap();
+      }
+      PsiFile psiFile = inputData.getPsiFile();
+      if (!(psiFile instanceof PsiJavaFile)) {
+        return Collections.emptyMap();
+      }
+      Map<String, List<Integer>> callSiteMap = new HashMap<>();
+      psiFile.accept(new JavaRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitMethodCallExpression(@NotNull PsiMethodCallExpression methodCallExpression) {
+          super.visitMethodCallExpression(methodCallExpression);
+          // 索引阶段不允许resolve, 只按文本判断
+          PsiReferenceExpression methodExpression = methodCallExpression.getMethodExpression();
+          PsiElement referenceNameElement = methodExpression.getReferenceNameElement();
+          if (null != referenceNameElement && BeanCopyHelper.isBeanCopyMethod(methodExpression)) {
+            callSiteMap.computeIfAbsent(referenceNameElement.getText(), k -> new ArrayList<>())
+                .add(referenceNameElement.getTextOffset());
+          }
+        }
+      });
+      return callSiteMap;
+    };
+  }
+
+  @Override
+  public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @Override
+  public @NotNull DataExternalizer<List<Integer>> getValueExternalizer() {
+    return OFFSET_LIST_EXTERNALIZER;
+  }
+
+  @Override
+  public int getVersion() {
+    return VERSION;
+  }
+
+  @Override
+  public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  private static boolean mayContainCallSite(CharSequence text) {
+    for (String token : BeanCopyHelper.getBeanCopyTokenSet()) {
+      if (StringUtil.contains(text, token)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 文件中是否有属性复制调用, 只读取索引不会构建PSI
+   */
+  public static boolean hasCallSites(Project project, VirtualFile virtualFile) {
+    return !FileBasedIndex.getInstance().getFileData(NAME, virtualFile, project).isEmpty();
+  }
+
+  /**
+   * 获取项目中包含属性复制调用的文件, 需要在读操作且非dumb模式下调用
+   */
+  public static Collection<VirtualFile> getContainingFiles(Project project) {
+    return getContainingFiles(GlobalSearchScope.projectScope(project));
+  }
+
+  public static Collection<VirtualFile> getContainingFiles(GlobalSearchScope scope) {
+    FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+    Set<VirtualFile> fileSet = new HashSet<>();
+    for (String methodName : BeanCopyHelper.getBeanCopyMethodNameSet()) {
+      fileSet.addAll(fileBasedIndex.getContainingFiles(NAME, methodName, scope));
+    }
+    return fileSet;
+  }
+
+  /**
+   * 根据索引中记录的偏移量定位文件中的属性复制调用, 偏移量失效(如文档未提交)的调用点会被跳过
+   */
+  public static List<PsiMethodCallExpression> getCallSites(PsiFile file) {
+    VirtualFile virtualFile = file.getVirtualFile();
+    if (null == virtualFile) {
+      return Collections.emptyList();
+    }
+    Map<String, List<Integer>> fileData = FileBasedIndex.getInstance().getFileData(NAME, virtualFile, file.getProject());
+    if (fileData.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<PsiMethodCallExpression> callSiteList = new ArrayList<>();
+    fileData.forEach((methodName, offsetList) -> {
+      for (int offset : offsetList) {
+        PsiElement element = file.findElementAt(offset);
+        if (null != element && methodName.equals(element.getText())
+            && element.getParent() instanceof PsiReferenceExpression methodExpression
+            && methodExpression.getParent() instanceof PsiMethodCallExpression methodCallExpression) {
+          callSiteList.add(methodCallExpression);
+        }
+      }
+    });
+    return callSiteList;
+  }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.index;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFileWithId;
+import com.intellij.psi.PsiClassInitializer;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-17 09:48:26
+ * @description: 跟踪编辑器中未保存的修改, 只把发生变化的方法体标记为脏数据, 由重新扫描队列定期在后台重新分析.
+ * 只保存文件id和成员的智能指针, 不持有PSI, 失效的成员不会留住被替换的语法树
+ * @description: Tracks unsaved in-editor edits, marks only the changed method bodies as dirty and lets the rescan queue re-analyze them periodically in the background.
+ * Only file ids and smart pointers to members are kept, no PSI is held so invalidated members do not pin replaced syntax trees
+ * @version: JDK 21
+ */
+@Service(Service.Level.PROJECT)
+public final class CopyPropertiesChangeTracker implements Disposable {
+
+  /**
+   * 文件id -> 发生变化的方法/初始化块/字段
+   */
+  private final Map<Integer, Set<SmartPsiElementPointer<PsiMember>>> dirtyMemberMap = new ConcurrentHashMap<>();
+
+  /**
+   * 变化发生在方法体之外(如import)的文件id, 需要整个文件重新分析
+   */
+  private final Set<Integer> dirtyFileIdSet = ConcurrentHashMap.newKeySet();
+
+  private final SmartPointerManager smartPointerManager;
+
+  /**
+   * 有新的脏数据时调用, 用于安排后台重新分析
+   */
+  private volatile Runnable dirtyListener;
+
+  public CopyPropertiesChangeTracker(Project project) {
+    this.smartPointerManager = SmartPointerManager.getInstance(project);
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        markDirty(event);
+      }
+
+      @Override
+      public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        markDirty(event);
+      }
+
+      @Override
+      public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        markDirty(event);
+      }
+
+      @Override
+      public void childMoved(@NotNull PsiTreeChangeEvent event) {
+        markDirty(event);
+      }
+
+      @Override
+      public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        markDirty(event);
+      }
+    }, this);
+  }
+
+  public static CopyPropertiesChangeTracker getInstance(Project project) {
+    return project.getService(CopyPropertiesChangeTracker.class);
+  }
+
+  public void setDirtyListener(Runnable dirtyListener) {
+    this.dirtyListener = dirtyListener;
+  }
+
+  private void markDirty(PsiTreeChangeEvent event) {
+    PsiFile file = event.getFile();
+    if (!(file instanceof PsiJavaFile) || !file.isPhysical() || !(file.getVirtualFile() instanceof VirtualFileWithId virtualFileWithId)) {
+      return;
+    }
+    int fileId = virtualFileWithId.getId();
+    if (dirtyFileIdSet.contains(fileId)) {
+      return;
+    }
+    PsiElement parent = event.getParent();
+    PsiMember member = null == parent ? null
+        : PsiTreeUtil.getNonStrictParentOfType(parent, PsiMethod.class, PsiClassInitializer.class, PsiField.class);
+    if (null == member) {
+      dirtyFileIdSet.add(fileId);
+      dirtyMemberMap.remove(fileId);
+    } else {
+      // 同一个成员返回同一个指针, Set中自然去重
+      dirtyMemberMap.computeIfAbsent(fileId, k -> ConcurrentHashMap.newKeySet()).add(smartPointerManager.createSmartPsiElementPointer(member));
+    }
+    fireDirty();
+  }
+
+  /**
+   * 整个文件标记为需要重新分析, 用于扫描时文档尚未提交的文件
+   */
+  public void markFileDirty(PsiFile file) {
+    if (!(file.getVirtualFile() instanceof VirtualFileWithId virtualFileWithId)) {
+      return;
+    }
+    int fileId = virtualFileWithId.getId();
+    dirtyFileIdSet.add(fileId);
+    dirtyMemberMap.remove(fileId);
+    fireDirty();
+  }
+
+  /**
+   * 按文件id整个文件标记为需要重新分析, 用于重新分析被取消时放回取出的数据
+   */
+  public void markFilesDirty(Collection<Integer> fileIds) {
+    if (fileIds.isEmpty()) {
+      return;
+    }
+    dirtyFileIdSet.addAll(fileIds);
+    fileIds.forEach(dirtyMemberMap::remove);
+    fireDirty();
+  }
+
+  private void fireDirty() {
+    Runnable listener = dirtyListener;
+    if (null != listener) {
+      listener.run();
+    }
+  }
+
+  public boolean hasDirty() {
+    return !dirtyFileIdSet.isEmpty() || !dirtyMemberMap.isEmpty();
+  }
+
+  /**
+   * 成员所在的文件是否有待重新分析的修改, 其中新增的复制调用可能引用该成员
+   */
+  public boolean isDirty(PsiMember member) {
+    PsiFile file = member.getContainingFile();
+    if (null == file || !(file.getVirtualFile() instanceof VirtualFileWithId virtualFileWithId)) {
+      return false;
+    }
+    int fileId = virtualFileWithId.getId();
+    return dirtyFileIdSet.contains(fileId) || dirtyMemberMap.containsKey(fileId);
+  }
+
+  /**
+   * 取出需要整个重新分析的文件id, 不需要读操作
+   */
+  public List<Integer> drainDirtyFiles() {
+    List<Integer> fileIdList = List.copyOf(dirtyFileIdSet);
+    fileIdList.forEach(dirtyFileIdSet::remove);
+    return fileIdList;
+  }
+
+  /**
+   * 取出发生变化的方法体, 不需要读操作
+   *
+   * @return 文件id -> 成员的智能指针, 成员已失效时指针返回null
+   */
+  public Map<Integer, Set<SmartPsiElementPointer<PsiMember>>> drainDirtyMembers() {
+    Map<Integer, Set<SmartPsiElementPointer<PsiMember>>> drainedMemberMap = new HashMap<>();
+    for (Integer fileId : List.copyOf(dirtyMemberMap.keySet())) {
+      Set<SmartPsiElementPointer<PsiMember>> memberSet = dirtyMemberMap.remove(fileId);
+      if (null != memberSet) {
+        drainedMemberMap.put(fileId, memberSet);
+      }
+    }
+    return drainedMemberMap;
+  }
+
+  @Override
+  public void dispose() {
+    dirtyListener = null;
+    dirtyMemberMap.values().forEach(memberSet -> memberSet.forEach(smartPointerManager::removePointer));
+    dirtyMemberMap.clear();
+    dirtyFileIdSet.clear();
+  }
+
+}
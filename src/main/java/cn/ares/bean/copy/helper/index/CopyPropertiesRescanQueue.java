@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.index;
+
+import cn.ares.bean.copy.helper.settings.BeanCopyHelperPluginSettings;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.Alarm;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-16 14:05:12
+ * @description: 文件变更后的重新扫描队列, 每个项目一个, 对文件去重并在一段时间内合并突发的变更, 编辑器中的修改也在这里定期重新分析
+ * @description: Per-project rescan queue for changed files, dedupes files and debounces bursts of changes, in-editor edits are also re-analyzed here periodically
+ * @version: JDK 21
+ */
+public class CopyPropertiesRescanQueue implements Disposable {
+
+  private static final Logger LOGGER = Logger.getInstance(CopyPropertiesRescanQueue.class);
+
+  private static final int DEFAULT_RESCAN_DELAY_MILLIS = 300;
+
+  private final Set<VirtualFile> pendingFileSet = ConcurrentHashMap.newKeySet();
+  private final Consumer<List<VirtualFile>> rescanner;
+  private final Runnable reanalyzer;
+  private final MergingUpdateQueue mergingUpdateQueue;
+
+  /**
+   * 重新分析编辑器中修改的更新标识, 与文件扫描的更新分别合并
+   */
+  private final Object reanalyzeIdentity = new Object();
+
+  /**
+   * @param rescanner 在后台线程中批量扫描文件, 文件可能是目录
+   * @param reanalyzer 在后台线程中重新分析变更跟踪记录的脏数据
+   */
+  public CopyPropertiesRescanQueue(Project project, Consumer<List<VirtualFile>> rescanner, Runnable reanalyzer) {
+    this.rescanner = rescanner;
+    this.reanalyzer = reanalyzer;
+    this.mergingUpdateQueue = new MergingUpdateQueue("BeanCopyHelper Rescan", getRescanDelayMillis(), true,
+        null, this, null, Alarm.ThreadToUse.POOLED_THREAD);
+    // 每次有新的变更都重新计时, 保存全部或切换分支时只会触发一次扫描
+    this.mergingUpdateQueue.setRestartTimerOnAdd(true);
+    Disposer.register(project, this);
+  }
+
+  public void queue(Collection<VirtualFile> virtualFiles) {
+    if (virtualFiles.isEmpty()) {
+      return;
+    }
+    pendingFileSet.addAll(virtualFiles);
+    mergingUpdateQueue.setMergingTimeSpan(getRescanDelayMillis());
+    // 相同标识的更新会被合并
+    mergingUpdateQueue.queue(Update.create(this, this::drain));
+  }
+
+  /**
+   * 编辑器中有新的修改, 输入停顿后再重新分析, 连续输入只会触发一次
+   */
+  public void queueReanalyze() {
+    mergingUpdateQueue.queue(Update.create(reanalyzeIdentity, reanalyzer));
+  }
+
+  private void drain() {
+    List<VirtualFile> fileList = List.copyOf(pendingFileSet);
+    // 只移除本次取出的文件, 扫描期间新加入的文件留给下一次
+    fileList.forEach(pendingFileSet::remove);
+    if (!fileList.isEmpty()) {
+      rescanner.accept(fileList);
+    }
+  }
+
+  private static int getRescanDelayMillis() {
+    try {
+      return Math.max(0, Integer.parseInt(BeanCopyHelperPluginSettings.getInstance().getRescanDelayMillis()));
+    } catch (NumberFormatException numberFormatException) {
+      LOGGER.warn("invalid rescan delay, use default: " + DEFAULT_RESCAN_DELAY_MILLIS);
+      return DEFAULT_RESCAN_DELAY_MILLIS;
+    }
+  }
+
+  @Override
+  public void dispose() {
+    pendingFileSet.clear();
+  }
+
+}
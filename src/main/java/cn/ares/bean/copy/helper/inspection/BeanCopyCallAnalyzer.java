@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.inspection;
+
+import cn.ares.bean.copy.helper.BeanCopyHelper;
+import cn.ares.bean.copy.helper.BeanCopyHelper.Result;
+import cn.ares.bean.copy.helper.model.ClassPropertyModel;
+import cn.ares.bean.copy.helper.model.Property;
+import cn.ares.bean.copy.helper.model.PropertyMatching;
+import cn.ares.bean.copy.helper.resolve.impl.ApacheBeanCopyResolveImpl;
+import cn.ares.bean.copy.helper.resolve.impl.SpringBeanCopyResolveImpl;
+import cn.ares.bean.copy.helper.util.LocaleSupport;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiExpression;
+import com.intellij.psi.PsiLiteralExpression;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiReferenceExpression;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import static cn.ares.bean.copy.helper.constant.Mark.TYPE_NOT_MATCH;
+import static com.intellij.psi.CommonClassNames.JAVA_LANG_OBJECT;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-25 10:36:14
+ * @description: 分析单个属性复制调用存在的问题, 结果缓存在调用表达式上, 直到所在文件或Java结构发生变化
+ * @description: Analyzes the problems of a single copy call, the result is cached on the call expression until its file or the Java structure changes
+ * @version: JDK 21
+ */
+public final class BeanCopyCallAnalyzer {
+
+  private BeanCopyCallAnalyzer() {
+  }
+
+  /**
+   * 获取调用存在的问题描述, 不是属性复制调用时返回空列表
+   */
+  public static List<String> getProblemList(PsiMethodCallExpression methodCallExpression) {
+    PsiReferenceExpression methodExpression = methodCallExpression.getMethodExpression();
+    // 先只比较方法名, 绝大多数无关调用在这里返回, 不会构建调用表达式的文本也不会访问缓存
+    if (!BeanCopyHelper.isBeanCopyMethodName(methodExpression)
+        && !ApacheBeanCopyResolveImpl.isBeanCopyPropertyMethodName(methodExpression)) {
+      return List.of();
+    }
+    return CachedValuesManager.getCachedValue(methodCallExpression, () -> CachedValueProvider.Result.create(
+        analyze(methodCallExpression),
+        methodCallExpression.getContainingFile(),
+        PsiModificationTracker.getInstance(methodCallExpression.getProject()).forLanguage(JavaLanguage.INSTANCE)));
+  }
+
+  /**
+   * 不缓存在调用表达式上, 用于批量检查, 每个调用只会分析一次
+   */
+  public static List<String> computeProblemList(PsiMethodCallExpression methodCallExpression) {
+    PsiReferenceExpression methodExpression = methodCallExpression.getMethodExpression();
+    if (!BeanCopyHelper.isBeanCopyMethodName(methodExpression)
+        && !ApacheBeanCopyResolveImpl.isBeanCopyPropertyMethodName(methodExpression)) {
+      return List.of();
+    }
+    return analyze(methodCallExpression);
+  }
+
+  private static List<String> analyze(PsiMethodCallExpression methodCallExpression) {
+    // 与持久化索引使用相同的文本, 不受换行、注释和类型参数影响
+    String methodText = BeanCopyHelper.getMethodText(methodCallExpression.getMethodExpression());
+    if (null == methodText) {
+      return List.of();
+    }
+    if (BeanCopyHelper.isBeanCopyMethod(methodText)) {
+      return analyzeCopyProperties(methodCallExpression);
+    } else if (ApacheBeanCopyResolveImpl.isBeanCopyPropertyMethod(methodText)) {
+      return analyzeCopyProperty(methodCallExpression);
+    }
+    return List.of();
+  }
+
+  private static List<String> analyzeCopyProperties(PsiMethodCallExpression methodCallExpression) {
+    Result invoke = BeanCopyHelper.invoke(methodCallExpression);
+    if (null == invoke) {
+      return List.of();
+    }
+
+    PsiClass sourceClass = invoke.sourceClass();
+    PsiClass targetClass = invoke.targetClass();
+
+    if (sourceClass == null || targetClass == null
+        || JAVA_LANG_OBJECT.equals(sourceClass.getQualifiedName())
+        || JAVA_LANG_OBJECT.equals(targetClass.getQualifiedName())) {
+      return List.of();
+    }
+
+    List<String> problemList = new ArrayList<>();
+    Set<String> commonPropertyNameSet = BeanCopyHelper.findCommonPropertyNameSet(invoke);
+    if (commonPropertyNameSet.isEmpty()) {
+      problemList.add(LocaleSupport.formatMessage("not.same.property", sourceClass.getName(), targetClass.getName()));
+    }
+
+    // 直接在匹配结果上遍历, 对应的目标属性按下标获取, 不需要构建属性Map
+    PropertyMatching matching = invoke.matching();
+    StringJoiner typeNotMatchJoiner = new StringJoiner("\n");
+    for (int i = 0; i < matching.sourceSize(); i++) {
+      Property property = matching.sourceProperty(i);
+      if (TYPE_NOT_MATCH == property.getMark()) {
+        typeNotMatchJoiner.add(property + "  " + property.getMark().getIcon() + matching.targetCounterpart(i));
+      }
+    }
+
+    if (typeNotMatchJoiner.length() > 0) {
+      String tips = typeNotMatchJoiner.toString();
+      problemList.add(LocaleSupport.formatMessage("type.not.match", sourceClass.getName(), targetClass.getName(), tips));
+    }
+
+    if (SpringBeanCopyResolveImpl.checkMethod(methodCallExpression)) {
+      problemList.add(LocaleSupport.formatMessage("spring.bean.copy.wrong.parameter.type"));
+    }
+    return List.copyOf(problemList);
+  }
+
+  private static List<String> analyzeCopyProperty(PsiMethodCallExpression methodCallExpression) {
+    PsiExpression[] expressions = methodCallExpression.getArgumentList().getExpressions();
+    if (expressions.length < 2) {
+      return List.of();
+    }
+    PsiClass targetClass = PsiUtil.resolveClassInType(expressions[0].getType());
+    if (null != targetClass && expressions[1] instanceof PsiLiteralExpression literalExpression) {
+      String fieldName = literalExpression.getText().replace("\"", "");
+      if (!ClassPropertyModel.of(targetClass).propertyMap().containsKey(fieldName)) {
+        return List.of(LocaleSupport.formatMessage("apache.bean.copy.field.not.exist", targetClass.getName(), fieldName));
+      }
+    }
+    return List.of();
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.inspection;
+
+import cn.ares.bean.copy.helper.BeanCopyHelper.Result;
+import cn.ares.bean.copy.helper.model.CopyPropertiesResultCache;
+import com.intellij.codeInspection.GlobalInspectionContext;
+import com.intellij.codeInspection.GlobalSimpleInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptionsProcessor;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethodCallExpression;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+
+import static com.intellij.codeInspection.ProblemHighlightType.WEAK_WARNING;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-26 16:02:37
+ * @description: 用于Inspect Code的批量检查, 与BeanCopyInspection报告相同的问题, 一次检查中所有文件共享复制结果缓存, 文件由平台并行处理
+ * @description: Batch inspection for Inspect Code, reports the same problems as BeanCopyInspection, all files of one run share the copy result cache and the platform processes files in parallel
+ * @version: JDK 21
+ */
+public class BeanCopyGlobalInspection extends GlobalSimpleInspectionTool {
+
+  private static final Key<Map<Object, Result>> RUN_SCOPE_KEY = Key.create("bean.copy.helper.global.inspection.run.scope");
+
+  @Override
+  public void inspectionStarted(@NotNull InspectionManager manager, @NotNull GlobalInspectionContext globalContext,
+      @NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+    globalContext.putUserData(RUN_SCOPE_KEY, new ConcurrentHashMap<>());
+  }
+
+  @Override
+  public void inspectionFinished(@NotNull InspectionManager manager, @NotNull GlobalInspectionContext globalContext,
+      @NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+    globalContext.putUserData(RUN_SCOPE_KEY, null);
+  }
+
+  @Override
+  public void checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, @NotNull ProblemsHolder problemsHolder,
+      @NotNull GlobalInspectionContext globalContext, @NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+    if (!(file instanceof PsiJavaFile)) {
+      return;
+    }
+    CopyPropertiesResultCache.withRunScope(getRunScope(globalContext), () -> {
+      file.accept(new JavaRecursiveElementWalkingVisitor() {
+
+        @Override
+        public void visitMethodCallExpression(@NotNull PsiMethodCallExpression methodCallExpression) {
+          super.visitMethodCallExpression(methodCallExpression);
+          for (String problem : BeanCopyCallAnalyzer.computeProblemList(methodCallExpression)) {
+            problemsHolder.registerProblem(methodCallExpression, problem, WEAK_WARNING);
+          }
+        }
+      });
+      return null;
+    });
+  }
+
+  private static Map<Object, Result> getRunScope(GlobalInspectionContext globalContext) {
+    Map<Object, Result> runScope = globalContext.getUserData(RUN_SCOPE_KEY);
+    if (null != runScope) {
+      return runScope;
+    }
+    // inspectionStarted未被调用时(如单文件运行)延迟创建
+    if (globalContext instanceof UserDataHolderEx userDataHolder) {
+      return userDataHolder.putUserDataIfAbsent(RUN_SCOPE_KEY, new ConcurrentHashMap<>());
+    }
+    return new ConcurrentHashMap<>();
+  }
+
+}
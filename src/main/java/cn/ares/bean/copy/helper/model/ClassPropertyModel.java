@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.model;
+
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-21 15:12:08
+ * @description: 类的属性模型, 按类缓存直到Java结构发生变化, 所有解析策略共享. 其中的Property没有标记, 标记时生成新的Property
+ * @description: Property model of a class, cached per class until the Java structure changes and shared by all resolvers. Its properties are unmarked, marking creates new properties
+ * @version: JDK 21
+ *
+ * @param propertyList 按getAllFields顺序的属性
+ * @param propertyMap 属性名 -> 属性, 同名时父类的属性覆盖子类的
+ * @param lowerCasePropertyMap 小写属性名 -> 属性, 用于忽略大小写的匹配
+ * @param sortedProperties 按(小写属性名, 属性名)排序的属性, 用于归并匹配, 不允许修改
+ * @param foldedNames 与sortedProperties一一对应的小写属性名, 不允许修改
+ */
+public record ClassPropertyModel(List<Property> propertyList,
+                                 Map<String, Property> propertyMap,
+                                 Map<String, Property> lowerCasePropertyMap,
+                                 Property[] sortedProperties,
+                                 String[] foldedNames) {
+
+  /**
+   * 先按小写属性名排序, 使只有大小写不同的属性相邻, 再按属性名排序使结果稳定
+   */
+  public static final Comparator<Property> PROPERTY_ORDER = Comparator.comparing((Property property) -> property.getName().toLowerCase())
+      .thenComparing(Property::getName);
+
+  public static ClassPropertyModel of(PsiClass psiClass) {
+    // 方法体内的修改不会使其失效, 库中的类只在未命中时才查全局缓存, 命中时无需遍历继承层次
+    return CachedValuesManager.getCachedValue(psiClass, () -> {
+      ClassPropertyModel model = psiClass instanceof PsiCompiledElement ? LibraryPropertyModelCache.getInstance().get(psiClass) : null;
+      if (null == model) {
+        model = build(psiClass, psiClass.getAllFields());
+      }
+      return CachedValueProvider.Result.create(model, PsiModificationTracker.getInstance(psiClass.getProject()).forLanguage(JavaLanguage.INSTANCE),
+          ProjectRootManager.getInstance(psiClass.getProject()));
+    });
+  }
+
+  static ClassPropertyModel build(PsiClass psiClass, PsiField[] fields) {
+    PropertyTypeTable propertyTypeTable = PropertyTypeTable.getInstance();
+    List<Property> propertyList = new ArrayList<>(fields.length);
+    Map<String, Property> propertyMap = new HashMap<>((int) ((float) fields.length / 0.75F + 1.0F));
+    for (PsiField field : fields) {
+      Property property = new Property(field.getName(), propertyTypeTable.intern(field.getType()));
+      propertyList.add(property);
+      propertyMap.put(property.getName(), property);
+    }
+    Map<String, Property> lowerCasePropertyMap = new HashMap<>((int) ((float) propertyMap.size() / 0.75F + 1.0F));
+    propertyMap.forEach((key, value) -> lowerCasePropertyMap.put(key.toLowerCase(), value));
+    Property[] sortedProperties = propertyMap.values().toArray(new Property[0]);
+    Arrays.sort(sortedProperties, PROPERTY_ORDER);
+    String[] foldedNames = new String[sortedProperties.length];
+    for (int i = 0; i < sortedProperties.length; i++) {
+      foldedNames[i] = sortedProperties[i].getName().toLowerCase();
+    }
+    return new ClassPropertyModel(Collections.unmodifiableList(propertyList), Collections.unmodifiableMap(propertyMap),
+        Collections.unmodifiableMap(lowerCasePropertyMap), sortedProperties, foldedNames);
+  }
+
+}
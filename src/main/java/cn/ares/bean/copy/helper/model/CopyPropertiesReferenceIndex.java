@@ -11,156 +11,268 @@
  */
 package cn.ares.bean.copy.helper.model;
 
-import com.intellij.openapi.application.Application;
-import com.intellij.openapi.application.ApplicationManager;
+import cn.ares.bean.copy.helper.index.CopyPropertiesChangeTracker;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWithId;
+import com.intellij.openapi.vfs.newvfs.ManagingFS;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiMethodCallExpression;
-import com.intellij.psi.SmartPointerManager;
-import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceExpression;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
 
 /**
  * @author: Aresxue
  * @time: 2025-07-08 16:27:56
  * @version: JDK 21
  */
-public class CopyPropertiesReferenceIndex {
+@Service(Service.Level.PROJECT)
+public final class CopyPropertiesReferenceIndex implements Disposable {
 
   private static final Logger LOGGER = Logger.getInstance(CopyPropertiesReferenceIndex.class);
 
   /**
-   * 缓存set方法与copy方法的映射关系
+   * 没有文件id的成员(如内存中的轻量文件)不进入索引
    */
-  private static final Map<SmartPsiElementPointer<PsiMember>, Set<SmartPsiElementPointer<PsiMethodCallExpression>>> METHOD_TO_COPY_PROPERTIES_MAP = new ConcurrentHashMap<>();
-
-  private static final ScheduledExecutorService CLEAN_INVALID_REFERENCE_SCHEDULED = Executors.newSingleThreadScheduledExecutor();
-
-  private static final Map<Project, SmartPointerManager> SMART_POINTER_MANAGER_MAP = new ConcurrentHashMap<>();
-
-  public static void init(Project project) {
-    SmartPointerManager smartPointerManager = SmartPointerManager.getInstance(project);
-    SMART_POINTER_MANAGER_MAP.put(project, smartPointerManager);
-    
-    // 每隔5min执行一次引用检查清理失效索引
-    CLEAN_INVALID_REFERENCE_SCHEDULED.scheduleAtFixedRate(() -> {
-      try {
-        Application application = ApplicationManager.getApplication();
-        // 直接在清理线程中检查，避免在后台线程中执行读操作
-        if (application.isReadAccessAllowed()) {
-          cleanInvalidReferences();
-        } else {
-          application.runReadAction(CopyPropertiesReferenceIndex::cleanInvalidReferences);
+  private static final long NO_MEMBER_KEY = 0L;
+
+  private final Project project;
+
+  /**
+   * 调用点和成员都以基本类型保存, 只有展示结果时才定位PSI
+   */
+  private final CopyPropertiesReferenceStore store = new CopyPropertiesReferenceStore();
+
+  /**
+   * 成员签名 -> 成员id, 成员key中保存id而不是签名的哈希, 不同的成员不会冲突. 只增不减, 大小与出现过的被复制成员数量有关
+   */
+  private final Map<String, Integer> memberIdMap = new ConcurrentHashMap<>();
+
+  /**
+   * 从1开始, 保证成员key不等于NO_MEMBER_KEY
+   */
+  private final AtomicInteger nextMemberId = new AtomicInteger(1);
+
+  public CopyPropertiesReferenceIndex(Project project) {
+    this.project = project;
+    Disposer.register(this, store);
+  }
+
+  public static CopyPropertiesReferenceIndex getInstance(Project project) {
+    return project.getService(CopyPropertiesReferenceIndex.class);
+  }
+
+  @Override
+  public void dispose() {
+    // 存储随服务一起释放
+    memberIdMap.clear();
+  }
+
+  /**
+   * 用文件最新的扫描结果替换该文件之前贡献的所有引用, 代价只与该文件的引用数有关
+   *
+   * @param virtualFile 被扫描的文件
+   * @param referenceMap 调用点 -> 被该调用点复制的成员, 为空时即清除该文件的引用
+   */
+  public void replaceFileReferences(VirtualFile virtualFile, Map<PsiMethodCallExpression, ? extends Collection<? extends PsiMember>> referenceMap) {
+    replaceCallSites(virtualFile, referenceMap, offset -> true);
+  }
+
+  /**
+   * 只替换文件中满足条件的调用点贡献的引用, 其余调用点保持不变, 用于只重新分析发生变化的方法体
+   *
+   * @param virtualFile 被扫描的文件
+   * @param referenceMap 调用点 -> 被该调用点复制的成员
+   * @param replacedOffset 旧调用点(按方法名偏移量)是否需要被替换
+   */
+  public void replaceCallSites(VirtualFile virtualFile,
+      Map<PsiMethodCallExpression, ? extends Collection<? extends PsiMember>> referenceMap, IntPredicate replacedOffset) {
+    if (!(virtualFile instanceof VirtualFileWithId virtualFileWithId)) {
+      return;
+    }
+    try {
+      int[] offsets = new int[referenceMap.size()];
+      int[] nameLengths = new int[referenceMap.size()];
+      long[][] memberKeys = new long[referenceMap.size()][];
+      int size = 0;
+      for (Map.Entry<PsiMethodCallExpression, ? extends Collection<? extends PsiMember>> entry : referenceMap.entrySet()) {
+        PsiElement referenceNameElement = entry.getKey().getMethodExpression().getReferenceNameElement();
+        if (null == referenceNameElement) {
+          continue;
         }
-      } catch (Exception exception) {
-        LOGGER.warn("clean invalid reference fail:", exception);
+        offsets[size] = referenceNameElement.getTextOffset();
+        nameLengths[size] = referenceNameElement.getTextLength();
+        memberKeys[size] = entry.getValue().stream()
+            .mapToLong(member -> getMemberKey(member, true))
+            .filter(memberKey -> NO_MEMBER_KEY != memberKey)
+            .distinct()
+            .toArray();
+        size++;
       }
-    }, 0, 5, TimeUnit.MINUTES);
-    
-    // 注册项目关闭时的资源清理
-    Disposer.register(project, () -> {
-      SMART_POINTER_MANAGER_MAP.remove(project);
-      // 清理项目相关的方法引用映射
-      METHOD_TO_COPY_PROPERTIES_MAP.entrySet().removeIf(entry -> {
-        PsiMember member = entry.getKey().getElement();
-        return member == null || !member.isValid() || member.getProject() == project;
-      });
-    });
+      PsiFile file = PsiManager.getInstance(project).findFile(virtualFile);
+      long stamp = null == file ? CopyPropertiesReferenceStore.NO_STAMP : file.getModificationStamp();
+      store.replace(virtualFileWithId.getId(), stamp, Arrays.copyOf(offsets, size), Arrays.copyOf(nameLengths, size),
+          Arrays.copyOf(memberKeys, size), replacedOffset);
+    } catch (Exception exception) {
+      LOGGER.warn("replace file references fail:", exception);
+    }
   }
 
-  private static void cleanInvalidReferences() {
-    List<SmartPsiElementPointer<PsiMember>> invalidMethodPointerList = new ArrayList<>();
-    METHOD_TO_COPY_PROPERTIES_MAP.keySet().forEach(methodPointer -> {
-      PsiMember member = methodPointer.getElement();
-      if (null == member || !member.isValid()) {
-        invalidMethodPointerList.add(methodPointer);
-      } else {
-        METHOD_TO_COPY_PROPERTIES_MAP.get(methodPointer).removeIf(methodCallExpressionPointer -> {
-              PsiMethodCallExpression methodCallExpression = methodCallExpressionPointer.getElement();
-              return null == methodCallExpression || !methodCallExpression.isValid();
-            });
-      }
+  public void removeFileReferences(VirtualFile virtualFile) {
+    replaceFileReferences(virtualFile, Collections.emptyMap());
+  }
+
+  /**
+   * 批量剔除被删除的文件及目录下所有文件贡献的引用, 以及声明在这些文件中的成员, 整批事件只遍历一次索引
+   *
+   * @param deletedFiles 被删除的文件或目录, 需要在文件失效前调用
+   */
+  public void evictFiles(Collection<VirtualFile> deletedFiles) {
+    if (deletedFiles.isEmpty()) {
+      return;
+    }
+    Set<VirtualFile> deletedFileSet = new HashSet<>(deletedFiles);
+    ManagingFS managingFS = ManagingFS.getInstance();
+    store.removeFiles(fileId -> {
+      VirtualFile virtualFile = managingFS.findFileById(fileId);
+      return null != virtualFile && VfsUtilCore.isUnder(virtualFile, deletedFileSet);
     });
-    invalidMethodPointerList.forEach(METHOD_TO_COPY_PROPERTIES_MAP::remove);
   }
 
   /**
-   * 应用关闭时调用，清理全局资源
+   * 获取目录下已有引用的文件, 文件移动或重命名时文件id不变, 索引的key无需更换只需重新扫描
    */
-  public static void shutdown() {
-    if (!CLEAN_INVALID_REFERENCE_SCHEDULED.isShutdown()) {
-      CLEAN_INVALID_REFERENCE_SCHEDULED.shutdown();
-      try {
-        if (!CLEAN_INVALID_REFERENCE_SCHEDULED.awaitTermination(5, TimeUnit.SECONDS)) {
-          CLEAN_INVALID_REFERENCE_SCHEDULED.shutdownNow();
-        }
-      } catch (InterruptedException e) {
-        CLEAN_INVALID_REFERENCE_SCHEDULED.shutdownNow();
-        Thread.currentThread().interrupt();
+  public List<VirtualFile> getReferencedFiles(VirtualFile directory) {
+    ManagingFS managingFS = ManagingFS.getInstance();
+    List<VirtualFile> fileList = new ArrayList<>();
+    for (int fileId : store.getFileIds()) {
+      VirtualFile virtualFile = managingFS.findFileById(fileId);
+      if (null != virtualFile && VfsUtilCore.isAncestor(directory, virtualFile, false)) {
+        fileList.add(virtualFile);
       }
     }
-    METHOD_TO_COPY_PROPERTIES_MAP.clear();
-    SMART_POINTER_MANAGER_MAP.clear();
+    return fileList;
   }
 
-  public static void addReference(PsiMember member, PsiMethodCallExpression methodCallExpression) {
-    try {
-      SmartPointerManager smartPointerManager = getSmartPointerManager(member);
-      SmartPsiElementPointer<PsiMember> methodPointer = smartPointerManager.createSmartPsiElementPointer(member);
-      SmartPsiElementPointer<PsiMethodCallExpression> methodCallExpressionPointer = smartPointerManager.createSmartPsiElementPointer(methodCallExpression);
-      METHOD_TO_COPY_PROPERTIES_MAP.computeIfAbsent(methodPointer, k -> new HashSet<>()).add(methodCallExpressionPointer);
-    } catch (Exception exception) {
-      LOGGER.warn("add reference fail:", exception);
+  /**
+   * 成员key为声明文件id + 成员签名的id, 不依赖偏移量, 编辑声明文件不会使其失效
+   *
+   * @param create 签名还没有id时是否分配, 只查询时不分配
+   */
+  private long getMemberKey(PsiMember member, boolean create) {
+    PsiFile file = member.getContainingFile();
+    VirtualFile virtualFile = null == file ? null : file.getVirtualFile();
+    if (!(virtualFile instanceof VirtualFileWithId virtualFileWithId)) {
+      return NO_MEMBER_KEY;
+    }
+    String signature = getMemberSignature(member);
+    Integer memberId = create ? memberIdMap.computeIfAbsent(signature, k -> nextMemberId.getAndIncrement()) : memberIdMap.get(signature);
+    return null == memberId ? NO_MEMBER_KEY : CopyPropertiesReferenceStore.pack(virtualFileWithId.getId(), memberId);
+  }
+
+  /**
+   * 类名#成员名, 方法还包含参数类型以区分重载, 如com.foo.User#setName(java.lang.String)
+   */
+  static String getMemberSignature(PsiMember member) {
+    PsiClass containingClass = member.getContainingClass();
+    String className = null == containingClass ? "" : null == containingClass.getQualifiedName() ? containingClass.getName() : containingClass.getQualifiedName();
+    StringBuilder signature = new StringBuilder().append(className).append('#').append(member.getName());
+    if (member instanceof PsiMethod method) {
+      signature.append('(');
+      PsiParameter[] parameters = method.getParameterList().getParameters();
+      for (int i = 0; i < parameters.length; i++) {
+        if (i > 0) {
+          signature.append(',');
+        }
+        signature.append(parameters[i].getType().getCanonicalText());
+      }
+      signature.append(')');
     }
+    return signature.toString();
   }
 
-  private static SmartPointerManager getSmartPointerManager(PsiMember member) {
-    Project project = member.getProject();
-    return SMART_POINTER_MANAGER_MAP.computeIfAbsent(project, k -> SmartPointerManager.getInstance(project));
+  /**
+   * 索引中是否有复制了该成员的调用点, 只读取索引不定位PSI, 可以在action的update中调用
+   */
+  public boolean hasReferences(PsiMember member) {
+    if (null == member || !member.isValid()) {
+      return false;
+    }
+    long memberKey = getMemberKey(member, false);
+    return NO_MEMBER_KEY != memberKey && store.hasCallSites(memberKey);
   }
 
-  public static List<PsiMethodCallExpression> getReferenceList(PsiMember member) {
-    if (null == member) {
+  /**
+   * 按文件id+偏移量定位调用点, 偏移量与PSI不一致(如文档未提交)的调用点会被跳过.
+   * 只对本次查询涉及的文件做惰性校验: 已失效的文件直接剔除, 时间戳变化的文件不返回并交给变更跟踪重新分析
+   */
+  public List<PsiMethodCallExpression> getReferenceList(PsiMember member) {
+    if (null == member || !member.isValid()) {
       return Collections.emptyList();
     }
-    SmartPsiElementPointer<PsiMember> methodPointer = getSmartPointerManager(member).createSmartPsiElementPointer(member);
-    if (!member.isValid()) {
-      METHOD_TO_COPY_PROPERTIES_MAP.remove(methodPointer);
+    long memberKey = getMemberKey(member, false);
+    if (NO_MEMBER_KEY == memberKey) {
       return Collections.emptyList();
     }
-
-    Set<SmartPsiElementPointer<PsiMethodCallExpression>> methodCallExpressionPointerSet = METHOD_TO_COPY_PROPERTIES_MAP.get(methodPointer);
-    List<PsiMethodCallExpression> methodCallExpressionList;
-    if (null == methodCallExpressionPointerSet || methodCallExpressionPointerSet.isEmpty()) {
-      // 剔除掉无效的引用
-      METHOD_TO_COPY_PROPERTIES_MAP.remove(methodPointer);
-      methodCallExpressionList = Collections.emptyList();
-    } else {
-      methodCallExpressionList = new ArrayList<>();
-      Iterator<SmartPsiElementPointer<PsiMethodCallExpression>> methodCallExpressionIterator = methodCallExpressionPointerSet.iterator();
-      // 遍历所有引用，剔除掉无效的引用
-      while (methodCallExpressionIterator.hasNext()) {
-        SmartPsiElementPointer<PsiMethodCallExpression> methodCallExpressionPointer = methodCallExpressionIterator.next();
-        PsiMethodCallExpression methodCallExpression = methodCallExpressionPointer.getElement();
-        if (methodCallExpression != null && methodCallExpression.isValid()) {
-          methodCallExpressionList.add(methodCallExpression);
-        } else {
-          // 剔除掉无效的引用
-          methodCallExpressionIterator.remove();
+    long[] locations = store.getCallSiteLocations(memberKey);
+    if (locations.length == 0) {
+      return Collections.emptyList();
+    }
+    ManagingFS managingFS = ManagingFS.getInstance();
+    PsiManager manager = PsiManager.getInstance(project);
+    Int2ObjectOpenHashMap<PsiFile> fileMap = new Int2ObjectOpenHashMap<>();
+    IntOpenHashSet invalidFileIdSet = new IntOpenHashSet();
+    List<PsiMethodCallExpression> methodCallExpressionList = new ArrayList<>(locations.length);
+    for (long location : locations) {
+      int fileId = CopyPropertiesReferenceStore.high(location);
+      PsiFile file = fileMap.get(fileId);
+      if (null == file && !fileMap.containsKey(fileId)) {
+        VirtualFile virtualFile = managingFS.findFileById(fileId);
+        file = null == virtualFile || !virtualFile.isValid() ? null : manager.findFile(virtualFile);
+        if (null == file) {
+          invalidFileIdSet.add(fileId);
+        } else if (file.getModificationStamp() != store.getStamp(fileId)) {
+          // 分析之后文件又被修改, 其中的调用点可能已经不复制该成员, 不返回, 等待重新分析
+          CopyPropertiesChangeTracker.getInstance(project).markFileDirty(file);
+          file = null;
         }
+        fileMap.put(fileId, file);
       }
+      if (null == file) {
+        continue;
+      }
+      PsiElement element = file.findElementAt(CopyPropertiesReferenceStore.low(location));
+      if (null != element && element.getParent() instanceof PsiReferenceExpression methodExpression
+          && methodExpression.getReferenceNameElement() == element
+          && methodExpression.getParent() instanceof PsiMethodCallExpression methodCallExpression) {
+        methodCallExpressionList.add(methodCallExpression);
+      }
+    }
+    if (!invalidFileIdSet.isEmpty()) {
+      store.removeFiles(invalidFileIdSet::contains);
     }
     return methodCallExpressionList;
   }
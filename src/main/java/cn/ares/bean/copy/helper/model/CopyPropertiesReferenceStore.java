@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.model;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWithId;
+import it.unimi.dsi.fastutil.ints.Int2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-18 10:36:52
+ * @description: 引用索引的紧凑存储, 调用点用文件id+偏移量表示, 成员用文件id+成员签名id表示, 全部保存在基本类型数组中, 不持有任何PSI或智能指针.
+ * 文件和成员分别按key分段加锁, 值都是写时复制的不可变数组, 读操作只在取出一个数组期间持有该分段的读锁
+ * @description: Compact storage of the reference index, call sites are file id + offset and members are file id + interned signature id, all kept in primitive arrays without any PSI or smart pointer.
+ * Files and members are lock-striped by key, values are copy-on-write immutable arrays, and reads take the stripe's read lock only long enough to fetch one array
+ * @version: JDK 21
+ */
+final class CopyPropertiesReferenceStore implements Disposable {
+
+  private static final long[] EMPTY_LONG_ARRAY = new long[0];
+
+  /**
+   * 调用点所在的文本被编辑后偏移量失效, 等待重新分析时剔除
+   */
+  static final int STALE_OFFSET = -1;
+
+  private static final int STRIPE_COUNT = 16;
+
+  private static final int STRIPE_MASK = STRIPE_COUNT - 1;
+
+  /**
+   * 文件id -> 该文件中的调用点, 按文件id分段
+   */
+  private final Stripe<Int2ObjectOpenHashMap<CallSites>>[] fileStripes = newStripes(Int2ObjectOpenHashMap::new);
+
+  /**
+   * 成员key -> 调用点引用(文件id << 32 | 调用点id), 按成员key分段
+   */
+  private final Stripe<Long2ObjectOpenHashMap<long[]>>[] memberStripes = newStripes(Long2ObjectOpenHashMap::new);
+
+  private final AtomicInteger nextCallSiteId = new AtomicInteger();
+
+  /**
+   * 没有该文件的记录
+   */
+  static final long NO_STAMP = -1L;
+
+  /**
+   * 一个文件中的调用点, 四个数组按下标一一对应, 创建后不再修改
+   *
+   * @param stamp 分析时文件的修改时间戳, 查询时与当前值比较判断是否需要重新分析
+   * @param nameLengths 方法名的长度, 编辑与方法名相交时偏移量失效
+   */
+  private record CallSites(long stamp, int[] ids, int[] offsets, int[] nameLengths, long[][] memberKeys) {
+
+  }
+
+  /**
+   * 一个分段, 加锁顺序总是先文件分段后成员分段
+   */
+  private record Stripe<M>(StampedLock lock, M map) {
+
+    /**
+     * 哈希表扩容期间的读取可能死循环或读到错误的值而不会抛出异常, 事后校验无法补救, 所以总是持有读锁
+     */
+    <T> T read(Supplier<T> reader) {
+      long stamp = lock.readLock();
+      try {
+        return reader.get();
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    void write(Runnable writer) {
+      long stamp = lock.writeLock();
+      try {
+        writer.run();
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <M> Stripe<M>[] newStripes(Supplier<M> mapSupplier) {
+    Stripe<M>[] stripes = new Stripe[STRIPE_COUNT];
+    for (int i = 0; i < STRIPE_COUNT; i++) {
+      stripes[i] = new Stripe<>(new StampedLock(), mapSupplier.get());
+    }
+    return stripes;
+  }
+
+  CopyPropertiesReferenceStore() {
+    // 由一个文档监听器统一平移偏移量, 代替每个调用点一个RangeMarker
+    EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentListener() {
+      @Override
+      public void documentChanged(@NotNull DocumentEvent event) {
+        VirtualFile virtualFile = FileDocumentManager.getInstance().getFile(event.getDocument());
+        if (virtualFile instanceof VirtualFileWithId virtualFileWithId) {
+          shiftOffsets(virtualFileWithId.getId(), event.getOffset(), event.getOldLength(), event.getNewLength());
+        }
+      }
+    }, this);
+  }
+
+  static long pack(int high, int low) {
+    return ((long) high << 32) | (low & 0xFFFFFFFFL);
+  }
+
+  static int high(long value) {
+    return (int) (value >>> 32);
+  }
+
+  static int low(long value) {
+    return (int) value;
+  }
+
+  private Stripe<Int2ObjectOpenHashMap<CallSites>> fileStripe(int fileId) {
+    return fileStripes[fileId & STRIPE_MASK];
+  }
+
+  private Stripe<Long2ObjectOpenHashMap<long[]>> memberStripe(long memberKey) {
+    return memberStripes[Long.hashCode(memberKey) & STRIPE_MASK];
+  }
+
+  /**
+   * 替换文件中满足条件的旧调用点, 偏移量已失效的旧调用点总是被替换, 整个替换持有该文件分段的写锁
+   *
+   * @param fileId 文件id
+   * @param stamp 分析时文件的修改时间戳
+   * @param offsets 新调用点的方法名偏移量
+   * @param nameLengths 新调用点的方法名长度, 与offsets一一对应
+   * @param memberKeys 新调用点复制的成员key, 与offsets一一对应
+   * @param replacedOffset 旧调用点是否需要被替换
+   */
+  void replace(int fileId, long stamp, int[] offsets, int[] nameLengths, long[][] memberKeys, IntPredicate replacedOffset) {
+    Stripe<Int2ObjectOpenHashMap<CallSites>> fileStripe = fileStripe(fileId);
+    fileStripe.write(() -> {
+      IntArrayList idList = new IntArrayList();
+      IntArrayList offsetList = new IntArrayList();
+      IntArrayList nameLengthList = new IntArrayList();
+      List<long[]> memberKeyList = new ArrayList<>();
+      CallSites oldCallSites = fileStripe.map().get(fileId);
+      if (null != oldCallSites) {
+        for (int i = 0; i < oldCallSites.ids.length; i++) {
+          int offset = oldCallSites.offsets[i];
+          if (STALE_OFFSET == offset || replacedOffset.test(offset)) {
+            unlink(pack(fileId, oldCallSites.ids[i]), oldCallSites.memberKeys[i]);
+          } else {
+            idList.add(oldCallSites.ids[i]);
+            offsetList.add(offset);
+            nameLengthList.add(oldCallSites.nameLengths[i]);
+            memberKeyList.add(oldCallSites.memberKeys[i]);
+          }
+        }
+      }
+      for (int i = 0; i < offsets.length; i++) {
+        int id = nextCallSiteId.getAndIncrement();
+        link(pack(fileId, id), memberKeys[i]);
+        idList.add(id);
+        offsetList.add(offsets[i]);
+        nameLengthList.add(nameLengths[i]);
+        memberKeyList.add(memberKeys[i]);
+      }
+      if (idList.isEmpty()) {
+        fileStripe.map().remove(fileId);
+      } else {
+        fileStripe.map().put(fileId, new CallSites(stamp, idList.toIntArray(), offsetList.toIntArray(), nameLengthList.toIntArray(), memberKeyList.toArray(long[][]::new)));
+      }
+    });
+  }
+
+  /**
+   * 获取复制了该成员的调用点位置, 读到的是各分段某一时刻的快照
+   *
+   * @return 文件id << 32 | 偏移量
+   */
+  long[] getCallSiteLocations(long memberKey) {
+    Stripe<Long2ObjectOpenHashMap<long[]>> memberStripe = memberStripe(memberKey);
+    long[] callSiteRefs = memberStripe.read(() -> memberStripe.map().get(memberKey));
+    if (null == callSiteRefs) {
+      return EMPTY_LONG_ARRAY;
+    }
+    LongArrayList locationList = new LongArrayList(callSiteRefs.length);
+    for (long callSiteRef : callSiteRefs) {
+      int fileId = high(callSiteRef);
+      Stripe<Int2ObjectOpenHashMap<CallSites>> fileStripe = fileStripe(fileId);
+      CallSites callSites = fileStripe.read(() -> fileStripe.map().get(fileId));
+      if (null == callSites) {
+        continue;
+      }
+      int index = indexOf(callSites.ids, low(callSiteRef));
+      if (index >= 0 && STALE_OFFSET != callSites.offsets[index]) {
+        locationList.add(pack(fileId, callSites.offsets[index]));
+      }
+    }
+    return locationList.toLongArray();
+  }
+
+  boolean hasCallSites(long memberKey) {
+    Stripe<Long2ObjectOpenHashMap<long[]>> memberStripe = memberStripe(memberKey);
+    return memberStripe.read(() -> memberStripe.map().containsKey(memberKey));
+  }
+
+  long getStamp(int fileId) {
+    Stripe<Int2ObjectOpenHashMap<CallSites>> fileStripe = fileStripe(fileId);
+    CallSites callSites = fileStripe.read(() -> fileStripe.map().get(fileId));
+    return null == callSites ? NO_STAMP : callSites.stamp;
+  }
+
+  int[] getFileIds() {
+    IntArrayList fileIdList = new IntArrayList();
+    for (Stripe<Int2ObjectOpenHashMap<CallSites>> fileStripe : fileStripes) {
+      fileIdList.addElements(fileIdList.size(), fileStripe.read(() -> fileStripe.map().keySet().toIntArray()));
+    }
+    return fileIdList.toIntArray();
+  }
+
+  /**
+   * 剔除满足条件的文件贡献的调用点以及声明在这些文件中的成员, 每个文件id只判断一次
+   */
+  void removeFiles(IntPredicate removedFileId) {
+    Int2BooleanOpenHashMap removedFileIdMap = new Int2BooleanOpenHashMap();
+    IntPredicate cachedRemovedFileId = fileId -> {
+      if (removedFileIdMap.containsKey(fileId)) {
+        return removedFileIdMap.get(fileId);
+      }
+      boolean removed = removedFileId.test(fileId);
+      removedFileIdMap.put(fileId, removed);
+      return removed;
+    };
+    for (Stripe<Int2ObjectOpenHashMap<CallSites>> fileStripe : fileStripes) {
+      fileStripe.write(() -> {
+        for (int fileId : fileStripe.map().keySet().toIntArray()) {
+          if (cachedRemovedFileId.test(fileId)) {
+            CallSites callSites = fileStripe.map().remove(fileId);
+            for (int i = 0; i < callSites.ids.length; i++) {
+              unlink(pack(fileId, callSites.ids[i]), callSites.memberKeys[i]);
+            }
+          }
+        }
+      });
+    }
+    for (Stripe<Long2ObjectOpenHashMap<long[]>> memberStripe : memberStripes) {
+      memberStripe.write(() -> {
+        LongIterator memberKeyIterator = memberStripe.map().keySet().iterator();
+        while (memberKeyIterator.hasNext()) {
+          if (cachedRemovedFileId.test(high(memberKeyIterator.nextLong()))) {
+            memberKeyIterator.remove();
+          }
+        }
+      });
+    }
+  }
+
+  void clear() {
+    for (Stripe<Int2ObjectOpenHashMap<CallSites>> fileStripe : fileStripes) {
+      fileStripe.write(() -> fileStripe.map().clear());
+    }
+    for (Stripe<Long2ObjectOpenHashMap<long[]>> memberStripe : memberStripes) {
+      memberStripe.write(() -> memberStripe.map().clear());
+    }
+  }
+
+  private void shiftOffsets(int fileId, int offset, int oldLength, int newLength) {
+    Stripe<Int2ObjectOpenHashMap<CallSites>> fileStripe = fileStripe(fileId);
+    // 绝大多数被编辑的文件没有调用点, 无需加写锁
+    if (null == fileStripe.read(() -> fileStripe.map().get(fileId))) {
+      return;
+    }
+    fileStripe.write(() -> {
+      CallSites callSites = fileStripe.map().get(fileId);
+      if (null == callSites) {
+        return;
+      }
+      int[] offsets = shiftOffsets(callSites.offsets, callSites.nameLengths, offset, oldLength, newLength);
+      fileStripe.map().put(fileId, new CallSites(callSites.stamp, callSites.ids, offsets, callSites.nameLengths, callSites.memberKeys));
+    });
+  }
+
+  /**
+   * 按文档修改平移方法名的偏移量, 修改范围与方法名[offset, offset + nameLength)相交或紧贴时方法名本身被修改, 标记为失效
+   *
+   * @return 新的偏移量数组, 不修改传入的数组
+   */
+  static int[] shiftOffsets(int[] offsets, int[] nameLengths, int changeOffset, int oldLength, int newLength) {
+    int changeEnd = changeOffset + oldLength;
+    int delta = newLength - oldLength;
+    int[] shiftedOffsets = offsets.clone();
+    for (int i = 0; i < shiftedOffsets.length; i++) {
+      int offset = shiftedOffsets[i];
+      if (STALE_OFFSET == offset) {
+        continue;
+      }
+      if (changeOffset <= offset + nameLengths[i] && changeEnd >= offset) {
+        // 在方法名内部或两端插入、删除、替换都会改变方法名
+        shiftedOffsets[i] = STALE_OFFSET;
+      } else if (offset > changeEnd) {
+        shiftedOffsets[i] = offset + delta;
+      }
+    }
+    return shiftedOffsets;
+  }
+
+  private void link(long callSiteRef, long[] memberKeys) {
+    for (long memberKey : memberKeys) {
+      Stripe<Long2ObjectOpenHashMap<long[]>> memberStripe = memberStripe(memberKey);
+      memberStripe.write(() -> {
+        long[] callSiteRefs = memberStripe.map().get(memberKey);
+        if (null == callSiteRefs) {
+          memberStripe.map().put(memberKey, new long[]{callSiteRef});
+        } else {
+          long[] newCallSiteRefs = new long[callSiteRefs.length + 1];
+          System.arraycopy(callSiteRefs, 0, newCallSiteRefs, 0, callSiteRefs.length);
+          newCallSiteRefs[callSiteRefs.length] = callSiteRef;
+          memberStripe.map().put(memberKey, newCallSiteRefs);
+        }
+      });
+    }
+  }
+
+  private void unlink(long callSiteRef, long[] memberKeys) {
+    for (long memberKey : memberKeys) {
+      Stripe<Long2ObjectOpenHashMap<long[]>> memberStripe = memberStripe(memberKey);
+      memberStripe.write(() -> {
+        long[] callSiteRefs = memberStripe.map().get(memberKey);
+        int index = null == callSiteRefs ? -1 : indexOf(callSiteRefs, callSiteRef);
+        if (index < 0) {
+          return;
+        }
+        if (callSiteRefs.length == 1) {
+          memberStripe.map().remove(memberKey);
+        } else {
+          long[] newCallSiteRefs = new long[callSiteRefs.length - 1];
+          System.arraycopy(callSiteRefs, 0, newCallSiteRefs, 0, index);
+          System.arraycopy(callSiteRefs, index + 1, newCallSiteRefs, index, newCallSiteRefs.length - index);
+          memberStripe.map().put(memberKey, newCallSiteRefs);
+        }
+      });
+    }
+  }
+
+  private static int indexOf(int[] array, int value) {
+    for (int i = 0; i < array.length; i++) {
+      if (array[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int indexOf(long[] array, long value) {
+    for (int i = 0; i < array.length; i++) {
+      if (array[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public void dispose() {
+    clear();
+  }
+
+}
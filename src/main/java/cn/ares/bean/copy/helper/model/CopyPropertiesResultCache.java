@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.model;
+
+import cn.ares.bean.copy.helper.BeanCopyHelper.Result;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFileWithId;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiModificationTracker;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-22 11:03:45
+ * @description: 属性复制结果的LRU缓存, 同一对类在多个调用点复制时只计算一次. key为全限类名+文件id, 不持有PSI, Java结构变化时失效
+ * @description: LRU cache of copy results, a class pair copied at many call sites is computed once. Keys are qualified name + file id without holding PSI, and entries expire when the Java structure changes
+ * @version: JDK 21
+ */
+@Service(Service.Level.PROJECT)
+public final class CopyPropertiesResultCache {
+
+  private static final int MAX_SIZE = 256;
+
+  private static final int NO_FILE_ID = -1;
+
+  /**
+   * 批量检查期间的结果缓存, 同一次检查中PSI不会变化, 不受LRU容量限制也无需校验修改时间戳
+   */
+  private static final ThreadLocal<Map<Object, Result>> RUN_SCOPE = new ThreadLocal<>();
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  private final Map<Key, Entry> entryMap = new LinkedHashMap<>(16, 0.75F, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+      if (size() > MAX_SIZE) {
+        evictionCount.incrementAndGet();
+        return true;
+      }
+      return false;
+    }
+  };
+
+  /**
+   * 类用全限类名+所在文件的id表示, 不持有PSI
+   */
+  private record Key(String sourceQualifiedName, int sourceFileId, String targetQualifiedName, int targetFileId,
+                     Set<String> ignoreProperties, boolean ignoreCase) {
+
+  }
+
+  /**
+   * @param stamp 计算时Java结构的修改计数
+   */
+  private record Entry(long stamp, Result result) {
+
+  }
+
+  public static CopyPropertiesResultCache getInstance(Project project) {
+    return project.getService(CopyPropertiesResultCache.class);
+  }
+
+  /**
+   * 在当前线程上使用批量检查的结果缓存执行, 多个线程可以共享同一个runScope
+   *
+   * @param runScope 一次批量检查共享的并发Map, 检查结束后丢弃
+   */
+  public static <T> T withRunScope(Map<Object, Result> runScope, Supplier<T> supplier) {
+    Map<Object, Result> previousRunScope = RUN_SCOPE.get();
+    RUN_SCOPE.set(runScope);
+    try {
+      return supplier.get();
+    } finally {
+      if (null == previousRunScope) {
+        RUN_SCOPE.remove();
+      } else {
+        RUN_SCOPE.set(previousRunScope);
+      }
+    }
+  }
+
+  /**
+   * 获取缓存的结果, 不存在或已过期时计算并放入缓存, 结果在多个调用点间共享不允许修改
+   */
+  public Result get(PsiClass sourceClass, PsiClass targetClass, Set<String> ignoreProperties, boolean ignoreCase, Supplier<Result> resultSupplier) {
+    Key key = createKey(sourceClass, targetClass, ignoreProperties, ignoreCase);
+    // 匿名类、局部类和内存中的类无法稳定地表示, 不缓存
+    if (null == key) {
+      missCount.incrementAndGet();
+      return resultSupplier.get();
+    }
+    Map<Object, Result> runScope = RUN_SCOPE.get();
+    if (null != runScope) {
+      Result result = runScope.get(key);
+      if (null != result) {
+        hitCount.incrementAndGet();
+        return result;
+      }
+      missCount.incrementAndGet();
+      result = resultSupplier.get();
+      if (null != result) {
+        Result previousResult = runScope.putIfAbsent(key, result);
+        return null == previousResult ? result : previousResult;
+      }
+      return null;
+    }
+    // 与属性模型使用同一个修改计数, 只有Java结构变化时失效, 命中时无需遍历继承层次
+    long stamp = PsiModificationTracker.getInstance(sourceClass.getProject()).forLanguage(JavaLanguage.INSTANCE).getModificationCount();
+    synchronized (entryMap) {
+      Entry entry = entryMap.get(key);
+      // 类被重新解析后结果中的PSI会失效, 即使时间戳相同也需要重新计算
+      if (null != entry && entry.stamp == stamp && entry.result.sourceClass().isValid() && entry.result.targetClass().isValid()) {
+        hitCount.incrementAndGet();
+        return entry.result;
+      }
+    }
+    missCount.incrementAndGet();
+    // 在锁外计算, 并发计算同一个key时后放入的覆盖先放入的, 结果相同
+    Result result = resultSupplier.get();
+    if (null != result) {
+      synchronized (entryMap) {
+        entryMap.put(key, new Entry(stamp, result));
+      }
+    }
+    return result;
+  }
+
+  private static Key createKey(PsiClass sourceClass, PsiClass targetClass, Set<String> ignoreProperties, boolean ignoreCase) {
+    String sourceQualifiedName = sourceClass.getQualifiedName();
+    String targetQualifiedName = targetClass.getQualifiedName();
+    int sourceFileId = getFileId(sourceClass);
+    int targetFileId = getFileId(targetClass);
+    if (null == sourceQualifiedName || null == targetQualifiedName || NO_FILE_ID == sourceFileId || NO_FILE_ID == targetFileId) {
+      return null;
+    }
+    return new Key(sourceQualifiedName, sourceFileId, targetQualifiedName, targetFileId, Set.copyOf(ignoreProperties), ignoreCase);
+  }
+
+  private static int getFileId(PsiClass psiClass) {
+    PsiFile file = psiClass.getContainingFile();
+    return null != file && file.getVirtualFile() instanceof VirtualFileWithId virtualFileWithId ? virtualFileWithId.getId() : NO_FILE_ID;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  public int size() {
+    synchronized (entryMap) {
+      return entryMap.size();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "CopyPropertiesResultCache{size=" + size() + ", hit=" + getHitCount() + ", miss=" + getMissCount()
+        + ", eviction=" + getEvictionCount() + "}";
+  }
+
+}
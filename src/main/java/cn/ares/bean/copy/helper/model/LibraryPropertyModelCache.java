@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.model;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCompiledElement;
+import com.intellij.psi.PsiFile;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-08-01 11:26:40
+ * @description: 依赖库中编译后的类的属性模型缓存, 会话中不会变化, 按全限类名和继承层次中所有类所在的库根目录缓存并在所有项目间共享,
+ * 任一库文件变化时重新构建, 容量有限按LRU淘汰
+ * @description: Property model cache of compiled library classes, which do not change during a session. Cached by fully qualified name and the library roots of every class in the hierarchy and shared across all projects,
+ * rebuilt when any of those library files changes, bounded with LRU eviction
+ * @version: JDK 21
+ */
+@Service(Service.Level.APP)
+public final class LibraryPropertyModelCache {
+
+  private static final int MAX_SIZE = 4096;
+
+  private final Map<Key, Entry> entryMap = new LinkedHashMap<>(16, 0.75F, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+
+  /**
+   * @param rootUrls 类及其所有父类和接口所在库的根目录, 不同项目中父类解析到不同版本时分开缓存
+   */
+  private record Key(String qualifiedName, List<String> rootUrls) {
+
+  }
+
+  /**
+   * @param stamp 继承层次中所有库文件的修改计数的组合
+   */
+  private record Entry(long stamp, ClassPropertyModel model) {
+
+  }
+
+  /**
+   * 继承层次中所有类所在的库
+   */
+  private record Hierarchy(List<String> rootUrls, long stamp) {
+
+  }
+
+  public static LibraryPropertyModelCache getInstance() {
+    return ApplicationManager.getApplication().getService(LibraryPropertyModelCache.class);
+  }
+
+  /**
+   * 获取缓存的属性模型, 不存在或库文件已变化时构建. 每次调用都会遍历继承层次, 只在类的CachedValue未命中时调用
+   *
+   * @return 不是库中的类或继承层次中有源码中的类时返回null, 由调用方按项目缓存
+   */
+  public ClassPropertyModel get(PsiClass psiClass) {
+    String qualifiedName = psiClass.getQualifiedName();
+    Hierarchy hierarchy = psiClass instanceof PsiCompiledElement && null != qualifiedName ? getHierarchy(psiClass) : null;
+    if (null == hierarchy) {
+      return null;
+    }
+    Key key = new Key(qualifiedName, hierarchy.rootUrls());
+    synchronized (entryMap) {
+      Entry entry = entryMap.get(key);
+      if (null != entry && entry.stamp == hierarchy.stamp()) {
+        return entry.model;
+      }
+    }
+    // 在锁外构建, 并发构建同一个key时后放入的覆盖先放入的, 结果相同
+    ClassPropertyModel model = ClassPropertyModel.build(psiClass, psiClass.getAllFields());
+    synchronized (entryMap) {
+      entryMap.put(key, new Entry(hierarchy.stamp(), model));
+    }
+    return model;
+  }
+
+  /**
+   * 遍历类及其所有父类和接口, 任一类不是编译后的类时返回null
+   */
+  private static Hierarchy getHierarchy(PsiClass psiClass) {
+    Set<String> rootUrlSet = new TreeSet<>();
+    long stamp = 0L;
+    Set<PsiClass> visitedClassSet = new HashSet<>();
+    Deque<PsiClass> classDeque = new ArrayDeque<>();
+    classDeque.push(psiClass);
+    while (!classDeque.isEmpty()) {
+      PsiClass currentClass = classDeque.pop();
+      if (!visitedClassSet.add(currentClass)) {
+        continue;
+      }
+      // 父类在源码中, 字段会随编辑变化, 不能永久缓存
+      VirtualFile root = currentClass instanceof PsiCompiledElement ? getRoot(currentClass) : null;
+      if (null == root) {
+        return null;
+      }
+      if (rootUrlSet.add(root.getUrl())) {
+        stamp = stamp * 31 + getStamp(root);
+      }
+      for (PsiClass superClass : currentClass.getSupers()) {
+        classDeque.push(superClass);
+      }
+    }
+    return new Hierarchy(List.copyOf(rootUrlSet), stamp);
+  }
+
+  private static VirtualFile getRoot(PsiClass psiClass) {
+    PsiFile file = psiClass.getContainingFile();
+    VirtualFile virtualFile = null == file ? null : file.getVirtualFile();
+    return null == virtualFile ? null : VfsUtilCore.getRootFile(virtualFile);
+  }
+
+  /**
+   * jar中的类使用jar文件本身的修改计数, jar被替换时失效
+   */
+  private static long getStamp(VirtualFile root) {
+    VirtualFile jarFile = VfsUtilCore.getVirtualFileForJar(root);
+    return null == jarFile ? root.getModificationStamp() : jarFile.getModificationStamp();
+  }
+
+  public int size() {
+    synchronized (entryMap) {
+      return entryMap.size();
+    }
+  }
+
+}
@@ -12,27 +12,28 @@
 package cn.ares.bean.copy.helper.model;
 
 import cn.ares.bean.copy.helper.constant.Mark;
-import com.intellij.psi.PsiType;
+import cn.ares.bean.copy.helper.model.PropertyTypeTable.TypeText;
 
 /**
  * @author: Aresxue
  * @time: 2025-07-04 14:59:44
+ * @description: 不可变的属性, 类型文本在构建时从PropertyTypeTable获取, 不保留PsiType. 标记通过withMark生成新的属性
+ * @description: Immutable property, its type text comes from PropertyTypeTable at construction and no PsiType is retained. Marks are applied through withMark, which creates a new property
  * @version: JDK 21
  */
-public class Property {
+public final class Property {
 
-  private String name;
-  private PsiType type;
-  private Mark mark;
+  private final String name;
+  private final TypeText typeText;
+  private final Mark mark;
 
-  public Property(String name, PsiType type) {
-    this.name = name;
-    this.type = type;
+  public Property(String name, TypeText typeText) {
+    this(name, typeText, null);
   }
 
-  public Property(String name, PsiType type, Mark mark) {
+  public Property(String name, TypeText typeText, Mark mark) {
     this.name = name;
-    this.type = type;
+    this.typeText = typeText;
     this.mark = mark;
   }
 
@@ -40,24 +41,19 @@ public class Property {
     return name;
   }
 
-  public void setName(String name) {
-    this.name = name;
-  }
-
-  public PsiType getType() {
-    return type;
-  }
-
-  public void setType(PsiType type) {
-    this.type = type;
+  public TypeText getTypeText() {
+    return typeText;
   }
 
   public Mark getMark() {
     return mark;
   }
 
-  public void setMark(Mark mark) {
-    this.mark = mark;
+  /**
+   * 名称和类型文本共享, 只有标记不同
+   */
+  public Property withMark(Mark mark) {
+    return mark == this.mark ? this : new Property(name, typeText, mark);
   }
 
   @Override
@@ -66,19 +62,19 @@ public class Property {
   }
 
   public String toFullString() {
-    return type.getCanonicalText() + " " + name;
+    return typeText.canonicalText() + " " + name;
   }
 
   public String getShortType() {
-    // 简化类型名称，去掉包名，支持泛型
-    return type.getCanonicalText().replaceAll("\\b([a-zA-Z0-9_]+\\.)+", "");
+    return typeText.shortText();
   }
 
   @Override
   public boolean equals(Object obj) {
     if (obj instanceof Property property) {
+      // 类型文本是驻留的, 同一项目内引用相同即类型相同
       return name.equals(property.name)
-          && type.getCanonicalText().equals(property.type.getCanonicalText());
+          && (typeText == property.typeText || typeText.canonicalText().equals(property.typeText.canonicalText()));
     }
     return false;
   }
@@ -86,9 +82,14 @@ public class Property {
   public boolean equalsIgnoreCase(Object obj) {
     if (obj instanceof Property property) {
       return name.equalsIgnoreCase(property.name)
-          && type.getCanonicalText().equalsIgnoreCase(property.type.getCanonicalText());
+          && (typeText == property.typeText || typeText.canonicalText().equalsIgnoreCase(property.typeText.canonicalText()));
     }
     return false;
   }
 
+  @Override
+  public int hashCode() {
+    return 31 * name.hashCode() + typeText.canonicalText().hashCode();
+  }
+
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.model;
+
+import cn.ares.bean.copy.helper.constant.Mark;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import static cn.ares.bean.copy.helper.constant.Mark.DIFF;
+import static cn.ares.bean.copy.helper.constant.Mark.IGNORED;
+import static cn.ares.bean.copy.helper.constant.Mark.SAME;
+import static cn.ares.bean.copy.helper.constant.Mark.TYPE_NOT_MATCH;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-31 15:47:22
+ * @description: 两个类属性的匹配结果, 在按小写属性名排序的数组上一次归并得到所有标记, 不构建Map也不逐个转小写. 按属性名查找的Map仅在需要时构建
+ * @description: Property matching of two classes, all marks come from a single merge over arrays sorted by case-folded name, without building maps or lower-casing per lookup. Name-keyed maps are only built on demand
+ * @version: JDK 21
+ */
+public final class PropertyMatching {
+
+  public static final int NO_COUNTERPART = -1;
+
+  private final Property[] sourceProperties;
+  private final Property[] targetProperties;
+  private final int[] sourceToTarget;
+  private final int[] targetToSource;
+  private final boolean ignoreCase;
+
+  private volatile SortedSet<String> commonPropertyNameSet;
+  private volatile Map<String, Property> sourcePropertyMap;
+  private volatile Map<String, Property> targetPropertyMap;
+  private volatile Map<String, Property> lowerCaseSourcePropertyMap;
+  private volatile Map<String, Property> lowerCaseTargetPropertyMap;
+
+  private PropertyMatching(Property[] sourceProperties, Property[] targetProperties, int[] sourceToTarget, int[] targetToSource,
+      boolean ignoreCase) {
+    this.sourceProperties = sourceProperties;
+    this.targetProperties = targetProperties;
+    this.sourceToTarget = sourceToTarget;
+    this.targetToSource = targetToSource;
+    this.ignoreCase = ignoreCase;
+  }
+
+  /**
+   * 归并两个类的属性, 同名的属性优先匹配, 忽略大小写时再匹配只有大小写不同的属性
+   *
+   * @param ignored 属性名是否被忽略
+   */
+  public static PropertyMatching match(ClassPropertyModel sourceModel, ClassPropertyModel targetModel, Predicate<String> ignored,
+      boolean ignoreCase) {
+    Property[] sortedSource = sourceModel.sortedProperties();
+    Property[] sortedTarget = targetModel.sortedProperties();
+    String[] sourceFoldedNames = sourceModel.foldedNames();
+    String[] targetFoldedNames = targetModel.foldedNames();
+    int[] sourceToTarget = new int[sortedSource.length];
+    int[] targetToSource = new int[sortedTarget.length];
+    Arrays.fill(sourceToTarget, NO_COUNTERPART);
+    Arrays.fill(targetToSource, NO_COUNTERPART);
+
+    int i = 0;
+    int j = 0;
+    while (i < sortedSource.length && j < sortedTarget.length) {
+      int compare = sourceFoldedNames[i].compareTo(targetFoldedNames[j]);
+      if (compare < 0) {
+        i++;
+      } else if (compare > 0) {
+        j++;
+      } else {
+        // 小写属性名相同的一组, 通常只有一个
+        int sourceEnd = groupEnd(sourceFoldedNames, i);
+        int targetEnd = groupEnd(targetFoldedNames, j);
+        matchGroup(sortedSource, i, sourceEnd, sortedTarget, j, targetEnd, sourceToTarget, ignoreCase);
+        matchGroup(sortedTarget, j, targetEnd, sortedSource, i, sourceEnd, targetToSource, ignoreCase);
+        i = sourceEnd;
+        j = targetEnd;
+      }
+    }
+
+    Property[] sourceProperties = mark(sortedSource, sourceToTarget, sortedTarget, ignored, ignoreCase);
+    Property[] targetProperties = mark(sortedTarget, targetToSource, sortedSource, ignored, ignoreCase);
+    return new PropertyMatching(sourceProperties, targetProperties, sourceToTarget, targetToSource, ignoreCase);
+  }
+
+  private static int groupEnd(String[] foldedNames, int start) {
+    int end = start + 1;
+    while (end < foldedNames.length && foldedNames[end].equals(foldedNames[start])) {
+      end++;
+    }
+    return end;
+  }
+
+  private static void matchGroup(Property[] properties, int start, int end, Property[] others, int otherStart, int otherEnd,
+      int[] counterparts, boolean ignoreCase) {
+    for (int i = start; i < end; i++) {
+      String name = properties[i].getName();
+      for (int j = otherStart; j < otherEnd; j++) {
+        if (name.equals(others[j].getName())) {
+          counterparts[i] = j;
+          break;
+        }
+      }
+      if (NO_COUNTERPART == counterparts[i] && ignoreCase) {
+        counterparts[i] = otherStart;
+      }
+    }
+  }
+
+  private static Property[] mark(Property[] properties, int[] counterparts, Property[] others, Predicate<String> ignored,
+      boolean ignoreCase) {
+    Property[] markedProperties = new Property[properties.length];
+    for (int i = 0; i < properties.length; i++) {
+      Property property = properties[i];
+      Mark mark;
+      if (ignored.test(property.getName())) {
+        mark = IGNORED;
+      } else if (NO_COUNTERPART == counterparts[i]) {
+        mark = DIFF;
+      } else {
+        Property other = others[counterparts[i]];
+        mark = property.equals(other) || (ignoreCase && property.equalsIgnoreCase(other)) ? SAME : TYPE_NOT_MATCH;
+      }
+      markedProperties[i] = property.withMark(mark);
+    }
+    return markedProperties;
+  }
+
+  public int sourceSize() {
+    return sourceProperties.length;
+  }
+
+  public int targetSize() {
+    return targetProperties.length;
+  }
+
+  public Property sourceProperty(int index) {
+    return sourceProperties[index];
+  }
+
+  public Property targetProperty(int index) {
+    return targetProperties[index];
+  }
+
+  /**
+   * @return 对应的目标属性下标, 没有时返回NO_COUNTERPART
+   */
+  public int targetIndexOf(int sourceIndex) {
+    return sourceToTarget[sourceIndex];
+  }
+
+  /**
+   * @return 对应的源属性下标, 没有时返回NO_COUNTERPART
+   */
+  public int sourceIndexOf(int targetIndex) {
+    return targetToSource[targetIndex];
+  }
+
+  /**
+   * @return 对应的目标属性, 没有时返回null
+   */
+  public Property targetCounterpart(int sourceIndex) {
+    int targetIndex = sourceToTarget[sourceIndex];
+    return NO_COUNTERPART == targetIndex ? null : targetProperties[targetIndex];
+  }
+
+  /**
+   * 同名且未被忽略的属性名, 按属性名排序. 首次访问时构建, 之后返回同一个不可修改的集合, 可以在共享的结果上并发调用
+   */
+  public SortedSet<String> commonPropertyNameSet() {
+    SortedSet<String> propertyNameSet = commonPropertyNameSet;
+    if (null == propertyNameSet) {
+      propertyNameSet = buildCommonPropertyNameSet();
+      commonPropertyNameSet = propertyNameSet;
+    }
+    return propertyNameSet;
+  }
+
+  private SortedSet<String> buildCommonPropertyNameSet() {
+    // 只排序一次, 命中的属性名直接放入TreeSet
+    TreeSet<String> propertyNameSet = new TreeSet<>();
+    for (int i = 0; i < sourceProperties.length; i++) {
+      Property sourceProperty = sourceProperties[i];
+      Property targetProperty = targetCounterpart(i);
+      if (IGNORED != sourceProperty.getMark() && null != targetProperty && sourceProperty.getName().equals(targetProperty.getName())) {
+        propertyNameSet.add(sourceProperty.getName());
+      }
+    }
+    return propertyNameSet.isEmpty() ? Collections.emptySortedSet() : Collections.unmodifiableSortedSet(propertyNameSet);
+  }
+
+  public Map<String, Property> sourcePropertyMap() {
+    Map<String, Property> propertyMap = sourcePropertyMap;
+    if (null == propertyMap) {
+      propertyMap = buildPropertyMap(sourceProperties, false);
+      sourcePropertyMap = propertyMap;
+    }
+    return propertyMap;
+  }
+
+  public Map<String, Property> targetPropertyMap() {
+    Map<String, Property> propertyMap = targetPropertyMap;
+    if (null == propertyMap) {
+      propertyMap = buildPropertyMap(targetProperties, false);
+      targetPropertyMap = propertyMap;
+    }
+    return propertyMap;
+  }
+
+  public Map<String, Property> lowerCaseSourcePropertyMap() {
+    Map<String, Property> propertyMap = lowerCaseSourcePropertyMap;
+    if (null == propertyMap) {
+      propertyMap = ignoreCase ? buildPropertyMap(sourceProperties, true) : Collections.emptyMap();
+      lowerCaseSourcePropertyMap = propertyMap;
+    }
+    return propertyMap;
+  }
+
+  public Map<String, Property> lowerCaseTargetPropertyMap() {
+    Map<String, Property> propertyMap = lowerCaseTargetPropertyMap;
+    if (null == propertyMap) {
+      propertyMap = ignoreCase ? buildPropertyMap(targetProperties, true) : Collections.emptyMap();
+      lowerCaseTargetPropertyMap = propertyMap;
+    }
+    return propertyMap;
+  }
+
+  /**
+   * 并发构建时后赋值的覆盖先赋值的, 内容相同
+   */
+  private static Map<String, Property> buildPropertyMap(Property[] properties, boolean lowerCase) {
+    Map<String, Property> propertyMap = new LinkedHashMap<>((int) ((float) properties.length / 0.75F + 1.0F));
+    for (Property property : properties) {
+      propertyMap.put(lowerCase ? property.getName().toLowerCase() : property.getName(), property);
+    }
+    return Collections.unmodifiableMap(propertyMap);
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.model;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.psi.PsiType;
+import com.intellij.util.containers.ContainerUtil;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-30 10:08:53
+ * @description: 属性类型文本的驻留表, 同一类型的全限类名和简短类名在应用内只计算和保存一份, 属性间比较类型时可以直接比较引用. 库中类的属性模型在项目间共享, 类型文本不能归属于某个项目, 以弱引用保存, 不再被引用时回收
+ * @description: Interning table of property type texts, the canonical and short text of a type are computed and stored once per application, so properties can compare types by reference. Property models of library classes are shared across projects, so their type texts must not belong to any single project; they are held weakly and reclaimed once unreferenced
+ * @version: JDK 21
+ */
+@Service(Service.Level.APP)
+public final class PropertyTypeTable {
+
+  /**
+   * 去掉包名, 支持泛型
+   */
+  private static final Pattern PACKAGE_PATTERN = Pattern.compile("\\b([a-zA-Z0-9_]+\\.)+");
+
+  /**
+   * 弱引用值, 没有属性模型再引用的类型文本随GC回收, 关闭的项目不会一直占用内存
+   */
+  private final ConcurrentMap<String, TypeText> typeTextMap = ContainerUtil.createConcurrentWeakValueMap();
+
+  /**
+   * @param canonicalText 全限类名, 如java.util.List&lt;java.lang.String&gt;
+   * @param shortText 简短类名, 如List&lt;String&gt;
+   */
+  public record TypeText(String canonicalText, String shortText) {
+
+  }
+
+  public static PropertyTypeTable getInstance() {
+    return ApplicationManager.getApplication().getService(PropertyTypeTable.class);
+  }
+
+  public TypeText intern(PsiType type) {
+    return intern(type.getCanonicalText());
+  }
+
+  public TypeText intern(String canonicalText) {
+    TypeText typeText = typeTextMap.get(canonicalText);
+    if (null == typeText) {
+      typeText = new TypeText(canonicalText, PACKAGE_PATTERN.matcher(canonicalText).replaceAll(""));
+      TypeText previousTypeText = typeTextMap.putIfAbsent(canonicalText, typeText);
+      if (null != previousTypeText) {
+        typeText = previousTypeText;
+      }
+    }
+    return typeText;
+  }
+
+}
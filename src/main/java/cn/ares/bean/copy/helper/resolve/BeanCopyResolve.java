@@ -13,18 +13,17 @@ package cn.ares.bean.copy.helper.resolve;
 
 import cn.ares.bean.copy.helper.BeanCopyHelper;
 import cn.ares.bean.copy.helper.BeanCopyHelper.Result;
+import cn.ares.bean.copy.helper.model.ClassPropertyModel;
+import cn.ares.bean.copy.helper.model.CopyPropertiesResultCache;
 import cn.ares.bean.copy.helper.model.Property;
-import cn.ares.bean.copy.helper.util.CommonUtil;
+import cn.ares.bean.copy.helper.model.PropertyMatching;
+import com.intellij.openapi.extensions.ExtensionPointName;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiMethodCallExpression;
 import com.intellij.psi.PsiType;
 import com.intellij.psi.impl.source.PsiImmediateClassType;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Stream;
 
 import static com.intellij.psi.CommonClassNames.JAVA_LANG_CLASS;
 
@@ -34,10 +33,17 @@ import static com.intellij.psi.CommonClassNames.JAVA_LANG_CLASS;
 public interface BeanCopyResolve {
 
   /**
-   * 是否支持
+   * 其他插件可以通过该扩展点注册自己的属性复制解析
    */
-  default boolean isSupport(PsiMethodCallExpression methodCallExpression) {
-    return qualifiedName().equals(BeanCopyHelper.resolveQualifiedName(methodCallExpression));
+  ExtensionPointName<BeanCopyResolve> EP_NAME = ExtensionPointName.create("cn.ares.bean-copy-helper.beanCopyResolve");
+
+  /**
+   * 是否支持, 方法所在类的全限类名已经解析并匹配过, 只需要判断参数
+   *
+   * @param qualifiedName 被调用方法所在类的全限类名
+   */
+  default boolean isSupport(PsiMethodCallExpression methodCallExpression, String qualifiedName) {
+    return true;
   }
 
   /**
@@ -45,6 +51,29 @@ public interface BeanCopyResolve {
    */
   String qualifiedName();
 
+  /**
+   * 支持的复制方法名, 用于在resolve前按方法名路由, 不在其中的调用不会被resolve
+   */
+  Set<String> methodNames();
+
+  /**
+   * 允许静态导入后直接调用的方法名, 过于通用的方法名(如copy)不应声明, 否则会匹配到大量无关调用
+   */
+  default Set<String> staticImportMethodNames() {
+    return Set.of();
+  }
+
+  /**
+   * qualifiedName是否只是类名的后缀, 如各业务自己的BeanCopyUtil
+   */
+  default boolean isQualifiedNameSuffix() {
+    return false;
+  }
+
+  default boolean matchQualifiedName(String qualifiedName) {
+    return isQualifiedNameSuffix() ? qualifiedName.endsWith(qualifiedName()) : qualifiedName().equals(qualifiedName);
+  }
+
 
   /**
    * 从 PsiMethodCallExpression 解析出结果
@@ -56,34 +85,23 @@ public interface BeanCopyResolve {
   }
 
   default Result buildResult(PsiClass sourceClass, PsiClass targetClass, Set<String> ignoreProperties, boolean ignoreCase) {
-    // 先收集一遍
-    List<Property> sourceProperties = Stream.of(sourceClass.getAllFields())
-        .map(field -> new Property(field.getName(), field.getType())).toList();
-    List<Property> targetProperties = Stream.of(targetClass.getAllFields())
-        .map(field -> new Property(field.getName(), field.getType())).toList();
-
-    Map<String, Property> sourcePropertyMap = CommonUtil.toIdentityMap(sourceProperties, Property::getName);
-    Map<String, Property> targetPropertyMap = CommonUtil.toIdentityMap(targetProperties, Property::getName);
+    // 同一对类在多个调用点复制时共享结果
+    return CopyPropertiesResultCache.getInstance(sourceClass.getProject()).get(sourceClass, targetClass, ignoreProperties, ignoreCase,
+        () -> computeResult(sourceClass, targetClass, ignoreProperties, ignoreCase));
+  }
 
-    Map<String, Property> lowerCaseSourcePropertyMap = buildLowerCasePropertyMap(ignoreCase, sourcePropertyMap);
-    Map<String, Property> lowerCaseTargetPropertyMap = buildLowerCasePropertyMap(ignoreCase, targetPropertyMap);
+  private static Result computeResult(PsiClass sourceClass, PsiClass targetClass, Set<String> ignoreProperties, boolean ignoreCase) {
+    // 属性模型按类缓存, 不需要每次都遍历类的继承层次
+    ClassPropertyModel sourceModel = ClassPropertyModel.of(sourceClass);
+    ClassPropertyModel targetModel = ClassPropertyModel.of(targetClass);
 
-    // 再标记一遍
-    sourceProperties.forEach(property -> BeanCopyHelper.markProperties(ignoreProperties, targetPropertyMap, lowerCaseTargetPropertyMap, property));
-    targetProperties.forEach(property -> BeanCopyHelper.markProperties(ignoreProperties, sourcePropertyMap, lowerCaseSourcePropertyMap, property));
+    // 标记是每次复制独有的, 缓存的属性不可变, 在一次归并中标记并生成新的属性
+    Set<String> ignoredProperties = Set.copyOf(ignoreProperties);
+    PropertyMatching matching = PropertyMatching.match(sourceModel, targetModel,
+        propertyName -> BeanCopyHelper.isIgnoredProperty(ignoredProperties, propertyName), ignoreCase);
 
-    return new Result(sourceClass, targetClass, sourcePropertyMap, targetPropertyMap, lowerCaseSourcePropertyMap, lowerCaseTargetPropertyMap, ignoreProperties);
-  }
-
-  private static Map<String, Property> buildLowerCasePropertyMap(boolean ignoreCase, Map<String, Property> propertyMap) {
-    Map<String, Property> lowerCasePropertyMap;
-    if (ignoreCase) {
-      lowerCasePropertyMap = new HashMap<>((int) ((float) propertyMap.size() / 0.75F + 1.0F));
-      propertyMap.forEach((key, value) -> lowerCasePropertyMap.put(key.toLowerCase(), value));
-    } else {
-      lowerCasePropertyMap = Collections.emptyMap();
-    }
-    return lowerCasePropertyMap;
+    // 结果会被缓存共享, 不允许调用方修改
+    return new Result(sourceClass, targetClass, matching, ignoredProperties);
   }
 
 
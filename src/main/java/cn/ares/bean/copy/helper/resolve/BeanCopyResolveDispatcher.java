@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.resolve;
+
+import cn.ares.bean.copy.helper.BeanCopyHelper;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-23 10:17:29
+ * @description: 解析策略分发, 先按方法名过滤掉无关调用, 每个调用点只resolve一次, 再按方法所在类的全限类名查表选择策略
+ * @description: Resolve strategy dispatcher, filters out unrelated calls by method name, resolves each call site once and picks the strategy by looking up the fully qualified name of the method's class
+ * @version: JDK 21
+ */
+public class BeanCopyResolveDispatcher {
+
+  private static final Logger LOGGER = Logger.getInstance(BeanCopyResolveDispatcher.class);
+
+  /**
+   * 未能解析到方法所在类, CachedValue中不保存null
+   */
+  private static final String UNRESOLVED = "";
+
+  /**
+   * 方法名 -> 声明了该方法名的策略
+   */
+  private final Map<String, List<BeanCopyResolve>> methodNameResolveMap = new HashMap<>();
+
+  /**
+   * 全限类名 -> 策略, 多个策略声明同一个类时按扩展点的注册顺序, 第一个支持该调用的策略生效
+   */
+  private final Map<String, List<BeanCopyResolve>> qualifiedNameResolveMap = new HashMap<>();
+
+  public BeanCopyResolveDispatcher(List<BeanCopyResolve> beanCopyResolveList) {
+    for (BeanCopyResolve beanCopyResolve : beanCopyResolveList) {
+      for (String methodName : beanCopyResolve.methodNames()) {
+        methodNameResolveMap.computeIfAbsent(methodName, k -> new ArrayList<>()).add(beanCopyResolve);
+      }
+      // 按类名后缀匹配的策略在全限类名查表未命中时, 从方法名路由到的策略中查找
+      if (!beanCopyResolve.isQualifiedNameSuffix()) {
+        List<BeanCopyResolve> resolveList = qualifiedNameResolveMap.computeIfAbsent(beanCopyResolve.qualifiedName(), k -> new ArrayList<>());
+        if (!resolveList.isEmpty()) {
+          LOGGER.info("Bean copy resolve " + beanCopyResolve.getClass().getName() + " declares " + beanCopyResolve.qualifiedName()
+              + " already declared by " + resolveList.get(0).getClass().getName() + ", it is only used when the earlier ones do not support the call");
+        }
+        resolveList.add(beanCopyResolve);
+      }
+    }
+  }
+
+  /**
+   * 被调用方法所在类的全限类名, 在调用表达式上缓存直到PSI发生修改
+   */
+  public static String getQualifiedName(PsiMethodCallExpression methodCallExpression) {
+    String qualifiedName = CachedValuesManager.getCachedValue(methodCallExpression, () -> {
+      String resolvedQualifiedName = BeanCopyHelper.resolveQualifiedName(methodCallExpression);
+      return CachedValueProvider.Result.create(null == resolvedQualifiedName ? UNRESOLVED : resolvedQualifiedName,
+          PsiModificationTracker.getInstance(methodCallExpression.getProject()));
+    });
+    return UNRESOLVED.equals(qualifiedName) ? null : qualifiedName;
+  }
+
+  /**
+   * 查找支持该调用的策略
+   *
+   * @return 不支持时返回null
+   */
+  public BeanCopyResolve dispatch(PsiMethodCallExpression methodCallExpression) {
+    // 没有策略声明该方法名的调用无需resolve
+    String methodName = methodCallExpression.getMethodExpression().getReferenceName();
+    if (null == methodName || !methodNameResolveMap.containsKey(methodName)) {
+      return null;
+    }
+    String qualifiedName = getQualifiedName(methodCallExpression);
+    if (null == qualifiedName) {
+      return null;
+    }
+    List<BeanCopyResolve> resolveList = qualifiedNameResolveMap.get(qualifiedName);
+    if (null != resolveList) {
+      for (BeanCopyResolve beanCopyResolve : resolveList) {
+        if (beanCopyResolve.methodNames().contains(methodName) && beanCopyResolve.isSupport(methodCallExpression, qualifiedName)) {
+          return beanCopyResolve;
+        }
+      }
+      return null;
+    }
+    for (BeanCopyResolve suffixResolve : methodNameResolveMap.get(methodName)) {
+      if (suffixResolve.isQualifiedNameSuffix() && suffixResolve.matchQualifiedName(qualifiedName)
+          && suffixResolve.isSupport(methodCallExpression, qualifiedName)) {
+        return suffixResolve;
+      }
+    }
+    return null;
+  }
+
+}
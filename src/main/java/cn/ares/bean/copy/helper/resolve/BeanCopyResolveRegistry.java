@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.resolve;
+
+import cn.ares.bean.copy.helper.index.CopyPropertiesCallSiteIndex;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-07-24 14:26:51
+ * @description: 解析策略注册表, 从扩展点加载所有策略并根据其声明的方法名和全限类名构建路由表, 扩展变化时重建
+ * @description: Registry of resolve strategies, loads every strategy from the extension point, builds routing tables from their declared method names and owner classes, and rebuilds them when extensions change
+ * @version: JDK 21
+ */
+@Service(Service.Level.APP)
+public final class BeanCopyResolveRegistry implements Disposable {
+
+  private static final Logger LOGGER = Logger.getInstance(BeanCopyResolveRegistry.class);
+
+  private volatile Routing routing;
+
+  /**
+   * 一次构建的不可变路由表, 扩展变化时整体替换
+   *
+   * @param dispatcher 按方法名和全限类名选择策略
+   * @param methodTextSet 调用表达式的文本, 如BeanUtils.copyProperties
+   * @param methodNameSet 方法名, 作为持久化索引的key
+   * @param tokenSet 文本预过滤用的标识符
+   */
+  private record Routing(BeanCopyResolveDispatcher dispatcher, Set<String> methodTextSet, Set<String> methodNameSet, Set<String> tokenSet) {
+
+  }
+
+  public BeanCopyResolveRegistry() {
+    this.routing = buildRouting();
+    BeanCopyResolve.EP_NAME.addChangeListener(this::onExtensionsChanged, this);
+  }
+
+  public static BeanCopyResolveRegistry getInstance() {
+    return ApplicationManager.getApplication().getService(BeanCopyResolveRegistry.class);
+  }
+
+  private void onExtensionsChanged() {
+    Set<String> oldMethodTextSet = routing.methodTextSet;
+    this.routing = buildRouting();
+    // 持久化索引的内容由方法文本决定, 方法变化后需要重建
+    if (!oldMethodTextSet.equals(routing.methodTextSet)) {
+      LOGGER.info("bean copy methods changed, rebuild call site index");
+      FileBasedIndex.getInstance().requestRebuild(CopyPropertiesCallSiteIndex.NAME);
+    }
+  }
+
+  private static Routing buildRouting() {
+    List<BeanCopyResolve> beanCopyResolveList = BeanCopyResolve.EP_NAME.getExtensionList();
+    Set<String> methodTextSet = new HashSet<>();
+    for (BeanCopyResolve beanCopyResolve : beanCopyResolveList) {
+      String qualifiedName = beanCopyResolve.qualifiedName();
+      String shortName = StringUtil.getShortName(qualifiedName);
+      for (String methodName : beanCopyResolve.methodNames()) {
+        // 导入类后调用和使用全限类名调用
+        methodTextSet.add(shortName + "." + methodName);
+        methodTextSet.add(qualifiedName + "." + methodName);
+      }
+      // 静态导入后调用
+      methodTextSet.addAll(beanCopyResolve.staticImportMethodNames());
+    }
+
+    Set<String> methodNameSet = new HashSet<>();
+    Set<String> tokenSet = new HashSet<>();
+    for (String methodText : methodTextSet) {
+      String[] segments = methodText.split("\\.");
+      String methodName = segments[segments.length - 1];
+      methodNameSet.add(methodName);
+      // 每个复制方法取方法名和类名中更长(更有区分度)的一个, 如create取BeanCopier
+      if (segments.length > 1 && segments[segments.length - 2].length() > methodName.length()) {
+        tokenSet.add(segments[segments.length - 2]);
+      } else {
+        tokenSet.add(methodName);
+      }
+    }
+    return new Routing(new BeanCopyResolveDispatcher(beanCopyResolveList), Set.copyOf(methodTextSet), Set.copyOf(methodNameSet), Set.copyOf(tokenSet));
+  }
+
+  public BeanCopyResolveDispatcher getDispatcher() {
+    return routing.dispatcher;
+  }
+
+  public Set<String> getMethodTextSet() {
+    return routing.methodTextSet;
+  }
+
+  public Set<String> getMethodNameSet() {
+    return routing.methodNameSet;
+  }
+
+  public Set<String> getTokenSet() {
+    return routing.tokenSet;
+  }
+
+  @Override
+  public void dispose() {
+    // 扩展点监听器随服务一起注销
+  }
+
+}
@@ -16,6 +16,7 @@ import cn.ares.bean.copy.helper.resolve.BeanCopyResolve;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiExpression;
 import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiReferenceExpression;
 import com.intellij.psi.util.PsiUtil;
 import java.util.HashSet;
 import java.util.Set;
@@ -25,14 +26,23 @@ import java.util.Set;
  */
 public class ApacheBeanCopyResolveImpl implements BeanCopyResolve {
 
+  private static final String COPY_PROPERTY_METHOD_NAME = "copyProperty";
+
   private static final Set<String> APACHE_COPY_PROPERTY_METHOD_SET = new HashSet<>();
 
   static {
-    APACHE_COPY_PROPERTY_METHOD_SET.add("BeanUtils.copyProperty");
-    APACHE_COPY_PROPERTY_METHOD_SET.add("org.apache.commons.beanutils.BeanUtils.copyProperty");
+    APACHE_COPY_PROPERTY_METHOD_SET.add("BeanUtils." + COPY_PROPERTY_METHOD_NAME);
+    APACHE_COPY_PROPERTY_METHOD_SET.add("org.apache.commons.beanutils.BeanUtils." + COPY_PROPERTY_METHOD_NAME);
   }
 
 
+  /**
+   * 只比较方法名, 不构建限定符的文本
+   */
+  public static boolean isBeanCopyPropertyMethodName(PsiReferenceExpression methodExpression) {
+    return COPY_PROPERTY_METHOD_NAME.equals(methodExpression.getReferenceName());
+  }
+
   public static boolean isBeanCopyPropertyMethod(String canonicalText) {
     return APACHE_COPY_PROPERTY_METHOD_SET.contains(canonicalText);
   }
@@ -42,6 +52,16 @@ public class ApacheBeanCopyResolveImpl implements BeanCopyResolve {
     return "org.apache.commons.beanutils.BeanUtils";
   }
 
+  @Override
+  public Set<String> methodNames() {
+    return Set.of("copyProperties");
+  }
+
+  @Override
+  public Set<String> staticImportMethodNames() {
+    return Set.of("copyProperties");
+  }
+
   /**
    * @see org.apache.commons.beanutils.BeanUtils#copyProperties
    */
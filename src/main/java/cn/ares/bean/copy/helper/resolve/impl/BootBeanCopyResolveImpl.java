@@ -38,6 +38,19 @@ public class BootBeanCopyResolveImpl implements BeanCopyResolve {
     return "BeanCopyUtil";
   }
 
+  @Override
+  public Set<String> methodNames() {
+    return Set.of("copy", "copyProperties", "copyPropertiesIgnoreNull");
+  }
+
+  /**
+   * 各业务自己的BeanCopyUtil包名不同, 按类名后缀匹配
+   */
+  @Override
+  public boolean isQualifiedNameSuffix() {
+    return true;
+  }
+
   @Override
   public Result resolve(PsiMethodCallExpression methodCallExpression) {
     PsiExpression[] expressions = methodCallExpression.getArgumentList().getExpressions();
@@ -66,13 +79,7 @@ public class BootBeanCopyResolveImpl implements BeanCopyResolve {
    * @see BeanCopyUtil#copy(SOURCE, T)
    */
   @Override
-  public boolean isSupport(PsiMethodCallExpression methodCallExpression) {
-    // 先做父类的判断不满足直接返回false
-    String qualifiedName = BeanCopyHelper.resolveQualifiedName(methodCallExpression);
-    if (null == qualifiedName || !qualifiedName.endsWith(qualifiedName())) {
-      return false;
-    }
-
+  public boolean isSupport(PsiMethodCallExpression methodCallExpression, String qualifiedName) {
     PsiExpressionList argumentList = methodCallExpression.getArgumentList();
     PsiExpression[] expressions = argumentList.getExpressions();
     // 暂时排除BeanCopyUtil#copy(SOURCE, Class<TARGET>, BiConsumer<SOURCE,TARGET>)和BeanCopyUtil#copy(SOURCE, Class<TARGET>, Converter)
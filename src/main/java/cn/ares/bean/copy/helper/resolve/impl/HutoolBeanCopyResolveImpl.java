@@ -36,6 +36,16 @@ public class HutoolBeanCopyResolveImpl implements BeanCopyResolve {
     return "cn.hutool.core.bean.BeanUtil";
   }
 
+  @Override
+  public Set<String> methodNames() {
+    return Set.of("copyProperties");
+  }
+
+  @Override
+  public Set<String> staticImportMethodNames() {
+    return Set.of("copyProperties");
+  }
+
   /**
    * @see cn.hutool.core.bean.BeanUtil#copyProperties(Object source, Object target, String... ignoreProperties)
    * @see cn.hutool.core.bean.BeanUtil#copyProperties(Object source, Class<T> tClass, String... ignoreProperties)
@@ -69,11 +79,7 @@ public class HutoolBeanCopyResolveImpl implements BeanCopyResolve {
   }
 
   @Override
-  public boolean isSupport(PsiMethodCallExpression methodCallExpression) {
-    // 先做父类的判断不满足直接返回false
-    if (!qualifiedName().equals(BeanCopyHelper.resolveQualifiedName(methodCallExpression))) {
-      return false;
-    }
+  public boolean isSupport(PsiMethodCallExpression methodCallExpression, String qualifiedName) {
     PsiType[] expressionTypes = methodCallExpression.getArgumentList().getExpressionTypes();
 
     // 暂时排除cn.hutool.core.bean.BeanUtil#copyProperties(Object, Object, CopyOptions)
@@ -34,15 +34,16 @@ public class SpringBeanCopierResolveImpl implements BeanCopyResolve {
     return SPRING_BEAN_COPIER_CLASS_NAME;
   }
 
+  @Override
+  public Set<String> methodNames() {
+    return Set.of("create");
+  }
+
   /**
    * @see org.springframework.cglib.beans.BeanCopier#create
    */
   @Override
-  public boolean isSupport(PsiMethodCallExpression methodCallExpression) {
-    // 先做父类的判断不满足直接返回false
-    if (!qualifiedName().equals(BeanCopyHelper.resolveQualifiedName(methodCallExpression))) {
-      return false;
-    }
+  public boolean isSupport(PsiMethodCallExpression methodCallExpression, String qualifiedName) {
     // 忽略useConverter为true的场景因为不知道它内部的逻辑
     PsiExpression[] expressions = methodCallExpression.getArgumentList().getExpressions();
     if (expressions[2] != null && expressions[2] instanceof PsiLiteralExpression literalExpression
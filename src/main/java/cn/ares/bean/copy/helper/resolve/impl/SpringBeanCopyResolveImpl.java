@@ -35,16 +35,22 @@ public class SpringBeanCopyResolveImpl implements BeanCopyResolve {
     return SPRING_BEAN_UTILS_CLASS_NAME;
   }
 
+  @Override
+  public Set<String> methodNames() {
+    return Set.of("copyProperties");
+  }
+
+  @Override
+  public Set<String> staticImportMethodNames() {
+    return Set.of("copyProperties");
+  }
+
   /**
    * @see org.springframework.beans.BeanUtils#copyProperties(java.lang.Object, java.lang.Object)
    * @see org.springframework.beans.BeanUtils#copyProperties(java.lang.Object, java.lang.Object, java.lang.Class<?>)
    */
   @Override
-  public boolean isSupport(PsiMethodCallExpression methodCallExpression) {
-    // 先做父类的判断不满足直接返回false
-    if (!qualifiedName().equals(BeanCopyHelper.resolveQualifiedName(methodCallExpression))) {
-      return false;
-    }
+  public boolean isSupport(PsiMethodCallExpression methodCallExpression, String qualifiedName) {
     PsiType[] expressionTypes = methodCallExpression.getArgumentList().getExpressionTypes();
     //  org.springframework.beans.BeanUtils#copyProperties(Object, Object)
     if (expressionTypes.length == 2) {
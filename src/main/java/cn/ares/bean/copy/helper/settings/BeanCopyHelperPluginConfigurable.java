@@ -29,6 +29,7 @@ import org.jetbrains.annotations.Nullable;
 public class BeanCopyHelperPluginConfigurable implements Configurable {
 
   private JTextField foneSizePercentageField;
+  private JTextField rescanDelayMillisField;
 
   @Nullable
   @Override
@@ -37,22 +38,31 @@ public class BeanCopyHelperPluginConfigurable implements Configurable {
     foneSizePercentageField = new JTextField(5);
     mainPanel.add(new JLabel("字体大小(%): "));
     mainPanel.add(foneSizePercentageField);
+    rescanDelayMillisField = new JTextField(5);
+    mainPanel.add(new JLabel("重新扫描延迟(ms): "));
+    mainPanel.add(rescanDelayMillisField);
     return mainPanel;
   }
 
   @Override
   public boolean isModified() {
-    return !Objects.equals(foneSizePercentageField.getText(), BeanCopyHelperPluginSettings.getInstance().getFoneSizePercentage());
+    BeanCopyHelperPluginSettings settings = BeanCopyHelperPluginSettings.getInstance();
+    return !Objects.equals(foneSizePercentageField.getText(), settings.getFoneSizePercentage())
+        || !Objects.equals(rescanDelayMillisField.getText(), settings.getRescanDelayMillis());
   }
 
   @Override
   public void apply() {
-    BeanCopyHelperPluginSettings.getInstance().setFoneSizePercentage(foneSizePercentageField.getText());
+    BeanCopyHelperPluginSettings settings = BeanCopyHelperPluginSettings.getInstance();
+    settings.setFoneSizePercentage(foneSizePercentageField.getText());
+    settings.setRescanDelayMillis(rescanDelayMillisField.getText());
   }
 
   @Override
   public void reset() {
-    foneSizePercentageField.setText(BeanCopyHelperPluginSettings.getInstance().getFoneSizePercentage());
+    BeanCopyHelperPluginSettings settings = BeanCopyHelperPluginSettings.getInstance();
+    foneSizePercentageField.setText(settings.getFoneSizePercentage());
+    rescanDelayMillisField.setText(settings.getRescanDelayMillis());
   }
 
   @Nls
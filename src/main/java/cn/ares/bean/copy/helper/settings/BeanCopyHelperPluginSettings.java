@@ -32,6 +32,8 @@ public class BeanCopyHelperPluginSettings implements PersistentStateComponent<Be
 
   private String foneSizePercentage = "100";
 
+  private String rescanDelayMillis = "300";
+
   @Override
   public @Nullable BeanCopyHelperPluginSettings getState() {
     return this;
@@ -55,4 +57,12 @@ public class BeanCopyHelperPluginSettings implements PersistentStateComponent<Be
     return foneSizePercentage;
   }
 
+  public void setRescanDelayMillis(String rescanDelayMillis) {
+    this.rescanDelayMillis = rescanDelayMillis;
+  }
+
+  public String getRescanDelayMillis() {
+    return rescanDelayMillis;
+  }
+
 }
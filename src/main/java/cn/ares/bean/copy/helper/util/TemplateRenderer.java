@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.util;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-08-04 16:13:52
+ * @description: 预编译的模板, 占位符{}的位置只解析一次, 渲染时所有片段直接写入同一个预分配的StringBuilder, 转义和填充也在写入时完成, 不产生中间字符串
+ * @description: Precompiled template, the {} placeholders are parsed once and rendering writes every fragment straight into one presized StringBuilder, escaping and padding inline without intermediate strings
+ * @version: JDK 21
+ */
+public final class TemplateRenderer {
+
+  private static final String PLACEHOLDER = "{}";
+  private static final String HTML_SPACE = "&nbsp;";
+
+  /**
+   * 占位符之间的文本, 比占位符多一个
+   */
+  private final String[] fragments;
+  private final int fragmentLength;
+
+  /**
+   * 向StringBuilder写入一个占位符的内容
+   */
+  @FunctionalInterface
+  public interface Part {
+
+    void writeTo(StringBuilder builder);
+
+  }
+
+  private TemplateRenderer(String[] fragments) {
+    this.fragments = fragments;
+    int length = 0;
+    for (String fragment : fragments) {
+      length += fragment.length();
+    }
+    this.fragmentLength = length;
+  }
+
+  public static TemplateRenderer compile(String template) {
+    int count = 0;
+    for (int index = template.indexOf(PLACEHOLDER); index >= 0; index = template.indexOf(PLACEHOLDER, index + PLACEHOLDER.length())) {
+      count++;
+    }
+    String[] fragments = new String[count + 1];
+    int handledPosition = 0;
+    for (int i = 0; i < count; i++) {
+      int index = template.indexOf(PLACEHOLDER, handledPosition);
+      fragments[i] = template.substring(handledPosition, index);
+      handledPosition = index + PLACEHOLDER.length();
+    }
+    fragments[count] = template.substring(handledPosition);
+    return new TemplateRenderer(fragments);
+  }
+
+  /**
+   * @param capacity 占位符内容的预估长度, 加上模板本身的长度作为StringBuilder的初始容量
+   */
+  public String render(int capacity, Part... parts) {
+    StringBuilder builder = new StringBuilder(fragmentLength + Math.max(capacity, 0));
+    renderTo(builder, parts);
+    return builder.toString();
+  }
+
+  public void renderTo(StringBuilder builder, Part... parts) {
+    if (parts.length != fragments.length - 1) {
+      throw new IllegalArgumentException("template expects " + (fragments.length - 1) + " parts but got " + parts.length);
+    }
+    for (int i = 0; i < parts.length; i++) {
+      builder.append(fragments[i]);
+      parts[i].writeTo(builder);
+    }
+    builder.append(fragments[parts.length]);
+  }
+
+  /**
+   * 写入时转义html中的尖括号
+   */
+  public static StringBuilder appendEscaped(StringBuilder builder, CharSequence text) {
+    for (int i = 0, length = text.length(); i < length; i++) {
+      char c = text.charAt(i);
+      if ('<' == c) {
+        builder.append("&lt;");
+      } else if ('>' == c) {
+        builder.append("&gt;");
+      } else {
+        builder.append(c);
+      }
+    }
+    return builder;
+  }
+
+  /**
+   * 写入文本并右填充到指定长度, html时转义并使用&amp;nbsp;填充
+   */
+  public static StringBuilder appendRightPad(StringBuilder builder, String text, int size, boolean html) {
+    if (html) {
+      appendEscaped(builder, text);
+    } else {
+      builder.append(text);
+    }
+    return appendPadding(builder, size - text.length(), html);
+  }
+
+  public static StringBuilder appendPadding(StringBuilder builder, int pads, boolean html) {
+    for (int i = 0; i < pads; i++) {
+      if (html) {
+        builder.append(HTML_SPACE);
+      } else {
+        builder.append(' ');
+      }
+    }
+    return builder;
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.model;
+
+import org.junit.Test;
+
+import static cn.ares.bean.copy.helper.model.CopyPropertiesReferenceStore.STALE_OFFSET;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-08-06 11:20:43
+ * @description: 引用索引紧凑存储中的打包和偏移量平移的测试
+ * @description: Tests of packing and offset shifting in the compact storage of the reference index
+ * @version: JDK 21
+ */
+public class CopyPropertiesReferenceStoreTest {
+
+  /**
+   * 方法名copyProperties位于[100, 114)
+   */
+  private static final int[] OFFSETS = {100};
+  private static final int[] NAME_LENGTHS = {14};
+
+  private static int shift(int changeOffset, int oldLength, int newLength) {
+    return CopyPropertiesReferenceStore.shiftOffsets(OFFSETS, NAME_LENGTHS, changeOffset, oldLength, newLength)[0];
+  }
+
+  @Test
+  public void packsAndUnpacks() {
+    long value = CopyPropertiesReferenceStore.pack(42, 7);
+    assertEquals(42, CopyPropertiesReferenceStore.high(value));
+    assertEquals(7, CopyPropertiesReferenceStore.low(value));
+  }
+
+  @Test
+  public void packsNegativeAndExtremeValues() {
+    long value = CopyPropertiesReferenceStore.pack(-1, -1);
+    assertEquals(-1, CopyPropertiesReferenceStore.high(value));
+    assertEquals(-1, CopyPropertiesReferenceStore.low(value));
+
+    // 低位的符号位不能污染高位
+    value = CopyPropertiesReferenceStore.pack(Integer.MAX_VALUE, Integer.MIN_VALUE);
+    assertEquals(Integer.MAX_VALUE, CopyPropertiesReferenceStore.high(value));
+    assertEquals(Integer.MIN_VALUE, CopyPropertiesReferenceStore.low(value));
+    value = CopyPropertiesReferenceStore.pack(Integer.MIN_VALUE, 0);
+    assertEquals(Integer.MIN_VALUE, CopyPropertiesReferenceStore.high(value));
+    assertEquals(0, CopyPropertiesReferenceStore.low(value));
+  }
+
+  @Test
+  public void keepsOffsetForEditAfterName() {
+    assertEquals(100, shift(120, 0, 5));
+    assertEquals(100, shift(115, 3, 0));
+  }
+
+  @Test
+  public void shiftsOffsetForEditBeforeName() {
+    assertEquals(105, shift(10, 0, 5));
+    assertEquals(97, shift(10, 5, 2));
+    assertEquals(90, shift(50, 30, 20));
+  }
+
+  @Test
+  public void staleForEditInsideName() {
+    assertEquals(STALE_OFFSET, shift(104, 0, 1));
+    assertEquals(STALE_OFFSET, shift(104, 4, 0));
+    assertEquals(STALE_OFFSET, shift(104, 4, 4));
+  }
+
+  @Test
+  public void staleForEditTouchingName() {
+    // 在方法名前后紧贴插入会改变方法名
+    assertEquals(STALE_OFFSET, shift(100, 0, 1));
+    assertEquals(STALE_OFFSET, shift(114, 0, 1));
+    // 删除范围的末尾紧贴方法名开头
+    assertEquals(STALE_OFFSET, shift(95, 5, 0));
+  }
+
+  @Test
+  public void staleForEditCoveringName() {
+    assertEquals(STALE_OFFSET, shift(90, 30, 0));
+    assertEquals(STALE_OFFSET, shift(110, 10, 2));
+  }
+
+  @Test
+  public void keepsStaleOffsetAndLeavesInputUnchanged() {
+    int[] offsets = {STALE_OFFSET, 10, 200};
+    int[] nameLengths = {4, 4, 4};
+    int[] shiftedOffsets = CopyPropertiesReferenceStore.shiftOffsets(offsets, nameLengths, 100, 0, 3);
+
+    assertArrayEquals(new int[]{STALE_OFFSET, 10, 203}, shiftedOffsets);
+    assertArrayEquals(new int[]{STALE_OFFSET, 10, 200}, offsets);
+  }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.model;
+
+import cn.ares.bean.copy.helper.constant.Mark;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static cn.ares.bean.copy.helper.model.PropertyMatching.NO_COUNTERPART;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-08-06 10:12:37
+ * @description: 属性归并匹配的测试, 属性模型由内存中的Java类经ClassPropertyModel.of构建
+ * @description: Tests of the property merge matching, property models are built from in-memory Java classes through ClassPropertyModel.of
+ * @version: JDK 21
+ */
+public class PropertyMatchingTest extends BasePlatformTestCase {
+
+  private static final Predicate<String> NONE_IGNORED = name -> false;
+
+  /**
+   * 只使用基本类型, 不依赖JDK的解析
+   */
+  private ClassPropertyModel model(String fields) {
+    PsiJavaFile file = (PsiJavaFile) PsiFileFactory.getInstance(getProject())
+        .createFileFromText("Bean.java", JavaFileType.INSTANCE, "class Bean {" + fields + "}");
+    return ClassPropertyModel.of(file.getClasses()[0]);
+  }
+
+  private static int sourceIndexOf(PropertyMatching matching, String name) {
+    for (int i = 0; i < matching.sourceSize(); i++) {
+      if (name.equals(matching.sourceProperty(i).getName())) {
+        return i;
+      }
+    }
+    throw new AssertionError("no source property " + name);
+  }
+
+  private static int targetIndexOf(PropertyMatching matching, String name) {
+    for (int j = 0; j < matching.targetSize(); j++) {
+      if (name.equals(matching.targetProperty(j).getName())) {
+        return j;
+      }
+    }
+    throw new AssertionError("no target property " + name);
+  }
+
+  public void testSortsByFoldedNameThenName() {
+    PropertyMatching matching = PropertyMatching.match(model("int b; int userName; int A; int username;"), model(""), NONE_IGNORED, false);
+
+    List<String> nameList = new ArrayList<>();
+    for (int i = 0; i < matching.sourceSize(); i++) {
+      nameList.add(matching.sourceProperty(i).getName());
+    }
+    assertEquals(List.of("A", "b", "userName", "username"), nameList);
+  }
+
+  public void testMarksExactMatches() {
+    ClassPropertyModel source = model("long id; int name; long age; int password;");
+    ClassPropertyModel target = model("long id; long name; int password; int email;");
+    PropertyMatching matching = PropertyMatching.match(source, target, "password"::equals, false);
+
+    assertEquals(Mark.SAME, matching.sourceProperty(sourceIndexOf(matching, "id")).getMark());
+    assertEquals(Mark.TYPE_NOT_MATCH, matching.sourceProperty(sourceIndexOf(matching, "name")).getMark());
+    assertEquals(Mark.DIFF, matching.sourceProperty(sourceIndexOf(matching, "age")).getMark());
+    assertEquals(Mark.IGNORED, matching.sourceProperty(sourceIndexOf(matching, "password")).getMark());
+    assertEquals(Mark.DIFF, matching.targetProperty(targetIndexOf(matching, "email")).getMark());
+    assertEquals(Mark.TYPE_NOT_MATCH, matching.targetProperty(targetIndexOf(matching, "name")).getMark());
+
+    int ageIndex = sourceIndexOf(matching, "age");
+    assertEquals(NO_COUNTERPART, matching.targetIndexOf(ageIndex));
+    assertNull(matching.targetCounterpart(ageIndex));
+    assertEquals(NO_COUNTERPART, matching.sourceIndexOf(targetIndexOf(matching, "email")));
+    assertEquals(targetIndexOf(matching, "id"), matching.targetIndexOf(sourceIndexOf(matching, "id")));
+  }
+
+  public void testCaseDifferenceIsDiffWithoutIgnoreCase() {
+    PropertyMatching matching = PropertyMatching.match(model("int userName;"), model("int username;"), NONE_IGNORED, false);
+
+    assertEquals(Mark.DIFF, matching.sourceProperty(0).getMark());
+    assertEquals(Mark.DIFF, matching.targetProperty(0).getMark());
+    assertEquals(NO_COUNTERPART, matching.targetIndexOf(0));
+  }
+
+  public void testIgnoreCaseMatchesCaseDifference() {
+    PropertyMatching matching = PropertyMatching.match(model("int userName;"), model("int username;"), NONE_IGNORED, true);
+
+    assertEquals(Mark.SAME, matching.sourceProperty(0).getMark());
+    assertEquals(Mark.SAME, matching.targetProperty(0).getMark());
+    assertEquals(0, matching.targetIndexOf(0));
+    assertEquals(0, matching.sourceIndexOf(0));
+  }
+
+  public void testIgnoreCasePrefersExactNameInGroup() {
+    PropertyMatching matching = PropertyMatching.match(model("int username;"), model("long userName; int username;"), NONE_IGNORED, true);
+
+    assertEquals(targetIndexOf(matching, "username"), matching.targetIndexOf(0));
+    assertEquals(Mark.SAME, matching.sourceProperty(0).getMark());
+  }
+
+  public void testIgnoreCaseFallsBackToFirstInGroup() {
+    // 组内没有同名属性时取排序后的第一个, 即按属性名排序最小的
+    PropertyMatching matching = PropertyMatching.match(model("int USERNAME;"), model("long username; int userName;"), NONE_IGNORED, true);
+
+    int userNameIndex = targetIndexOf(matching, "userName");
+    assertEquals(0, userNameIndex);
+    assertEquals(userNameIndex, matching.targetIndexOf(0));
+    assertEquals(Mark.SAME, matching.sourceProperty(0).getMark());
+    // 目标类中的两个属性都对应唯一的源属性
+    assertEquals(0, matching.sourceIndexOf(targetIndexOf(matching, "username")));
+    assertEquals(Mark.TYPE_NOT_MATCH, matching.targetProperty(targetIndexOf(matching, "username")).getMark());
+  }
+
+  public void testCommonPropertyNamesExcludeIgnoredAndCaseOnlyMatches() {
+    ClassPropertyModel source = model("long id; int name; int userName; int password;");
+    ClassPropertyModel target = model("long id; long name; int username; int password;");
+    PropertyMatching matching = PropertyMatching.match(source, target, "password"::equals, true);
+
+    Set<String> commonPropertyNameSet = matching.commonPropertyNameSet();
+    assertEquals(List.of("id", "name"), new ArrayList<>(commonPropertyNameSet));
+    assertSame(commonPropertyNameSet, matching.commonPropertyNameSet());
+  }
+
+  public void testLowerCaseMapsOnlyWithIgnoreCase() {
+    ClassPropertyModel source = model("int userName;");
+    ClassPropertyModel target = model("int username;");
+
+    assertTrue(PropertyMatching.match(source, target, NONE_IGNORED, false).lowerCaseSourcePropertyMap().isEmpty());
+    PropertyMatching matching = PropertyMatching.match(source, target, NONE_IGNORED, true);
+    assertEquals("userName", matching.lowerCaseSourcePropertyMap().get("username").getName());
+    assertEquals("username", matching.targetPropertyMap().get("username").getName());
+  }
+
+}
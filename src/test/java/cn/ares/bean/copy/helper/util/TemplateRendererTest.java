@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2025 Aresxue
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED.
+ */
+package cn.ares.bean.copy.helper.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * @author: Aresxue
+ * @time: 2025-08-06 10:48:15
+ * @description: 预编译模板的测试
+ * @description: Tests of the precompiled template
+ * @version: JDK 21
+ */
+public class TemplateRendererTest {
+
+  @Test
+  public void rendersPartsInOrder() {
+    TemplateRenderer renderer = TemplateRenderer.compile("{}.set{}({}.get{}());");
+
+    String text = renderer.render(0, builder -> builder.append("target"), builder -> builder.append("Name"),
+        builder -> builder.append("source"), builder -> builder.append("Name"));
+    assertEquals("target.setName(source.getName());", text);
+  }
+
+  @Test
+  public void rendersLeadingTrailingAndAdjacentPlaceholders() {
+    TemplateRenderer renderer = TemplateRenderer.compile("{}{}-{}");
+
+    assertEquals("ab-c", renderer.render(8, builder -> builder.append('a'), builder -> builder.append('b'), builder -> builder.append('c')));
+  }
+
+  @Test
+  public void rendersTemplateWithoutPlaceholder() {
+    assertEquals("plain", TemplateRenderer.compile("plain").render(-1));
+  }
+
+  @Test
+  public void rendersToExistingBuilder() {
+    StringBuilder builder = new StringBuilder("<");
+    TemplateRenderer.compile("{}>").renderTo(builder, part -> part.append("tag"));
+    assertEquals("<tag>", builder.toString());
+  }
+
+  @Test
+  public void rejectsWrongPartCount() {
+    TemplateRenderer renderer = TemplateRenderer.compile("{} {}");
+
+    assertThrows(IllegalArgumentException.class, () -> renderer.render(0, builder -> builder.append('a')));
+  }
+
+  @Test
+  public void escapesAngleBrackets() {
+    assertEquals("List&lt;Map&lt;K, V&gt;&gt;", TemplateRenderer.appendEscaped(new StringBuilder(), "List<Map<K, V>>").toString());
+  }
+
+  @Test
+  public void padsPlainTextWithSpaces() {
+    assertEquals("id   |", TemplateRenderer.appendRightPad(new StringBuilder(), "id", 5, false).append('|').toString());
+    // 文本超过长度时不截断
+    assertEquals("name|", TemplateRenderer.appendRightPad(new StringBuilder(), "name", 2, false).append('|').toString());
+  }
+
+  @Test
+  public void padsHtmlWithEscapedTextAndNbsp() {
+    assertEquals("List&lt;T&gt;&nbsp;&nbsp;", TemplateRenderer.appendRightPad(new StringBuilder(), "List<T>", 9, true).toString());
+  }
+
+}